@@ -0,0 +1,24 @@
+package com.acheron.profitsoft2;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Application context shared by all benchmarks of one fork, running against an in-memory H2 database.
+ */
+public final class BenchmarkContext {
+
+    private static ConfigurableApplicationContext context;
+
+    private BenchmarkContext() {
+    }
+
+    public static synchronized ConfigurableApplicationContext get() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(Profitsoft2Application.class)
+                    .profiles("jmh")
+                    .run();
+        }
+        return context;
+    }
+}
@@ -0,0 +1,62 @@
+package com.acheron.profitsoft2.dto.request;
+
+import com.acheron.profitsoft2.BenchmarkContext;
+import com.acheron.profitsoft2.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a fully populated listing request into a specification, and into a criteria query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListBookRequestBenchmark {
+
+    private ListBookRequest request;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        request = new ListBookRequest(
+                "Kingdom",
+                new ListBookRequest.PublishedDate(null, new Date(), new Date(0)),
+                "9780000000001",
+                "11111111-1111-1111-1111-111111111111",
+                0,
+                10,
+                null,
+                null,
+                null,
+                null
+        );
+        entityManager = BenchmarkContext.get().getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+    }
+
+    @Benchmark
+    public Specification<Book> toSpecification() {
+        return request.toSpecification();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Book> toCriteriaQuery() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+        query.where(request.toSpecification().toPredicate(root, query, cb));
+        return query;
+    }
+}
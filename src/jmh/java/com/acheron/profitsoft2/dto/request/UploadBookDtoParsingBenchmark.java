@@ -0,0 +1,59 @@
+package com.acheron.profitsoft2.dto.request;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing an upload file with the ObjectMapper: binding the whole array at once versus reading records one by one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UploadBookDtoParsingBenchmark {
+
+    @Param({"1000", "100000"})
+    public int books;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String authorId = UUID.randomUUID().toString();
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < books; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"title\":\"Book title ").append(i)
+                    .append("\",\"isbn\":\"").append(9780000000000L + i)
+                    .append("\",\"authorId\":\"").append(authorId)
+                    .append("\",\"publishDate\":\"2025-12-10T12:00:00Z\"}");
+        }
+        json = sb.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<UploadBookDto> readList() {
+        return objectMapper.readValue(json, new TypeReference<>() {
+        });
+    }
+
+    @Benchmark
+    public void readStreaming(Blackhole blackhole) {
+        try (JsonParser parser = objectMapper.createParser(new ByteArrayInputStream(json))) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                blackhole.consume(objectMapper.readValue(parser, UploadBookDto.class));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.acheron.profitsoft2.mapper;
+
+import com.acheron.profitsoft2.BenchmarkContext;
+import com.acheron.profitsoft2.dto.response.BookDto;
+import com.acheron.profitsoft2.dto.response.BookView;
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.entity.Book;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookMapperBenchmark {
+
+    private BookMapper bookMapper;
+    private Book book;
+    private BookView view;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bookMapper = BenchmarkContext.get().getBean(BookMapper.class);
+
+        Author author = new Author();
+        author.setId(UUID.randomUUID());
+        author.setFirstName("John");
+        author.setLastName("Doe");
+        author.setContactInfo("john.doe@example.com");
+
+        book = new Book();
+        book.setId(UUID.randomUUID());
+        book.setAuthor(author);
+        book.setTitle("The Lost Kingdom");
+        book.setIsbn("9780000000001");
+        book.setPublishDate(Instant.parse("2023-05-01T00:00:00Z"));
+
+        view = new BookView(book.getId(), book.getTitle(), book.getIsbn(), book.getPublishDate(),
+                author.getFirstName(), author.getLastName());
+    }
+
+    @Benchmark
+    public BookDto mapEntity() {
+        return bookMapper.map(book);
+    }
+
+    @Benchmark
+    public BookDto mapView() {
+        return bookMapper.map(view);
+    }
+}
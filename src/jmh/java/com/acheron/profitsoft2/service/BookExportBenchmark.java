@@ -0,0 +1,96 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.BenchmarkContext;
+import com.acheron.profitsoft2.dto.request.ExportFormat;
+import com.acheron.profitsoft2.dto.request.ListBookRequest;
+import com.acheron.profitsoft2.dto.response.AuthorDto;
+import com.acheron.profitsoft2.dto.response.BookDto;
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.entity.Book;
+import com.acheron.profitsoft2.repository.AuthorRepository;
+import com.acheron.profitsoft2.repository.BookJdbcRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Export cost by result size and format: the writer alone, and the whole path from the database cursor to the output stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BookExportBenchmark {
+
+    private static final int SEED_BATCH = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"CSV", "CSV_GZIP", "COLUMNAR"})
+    public ExportFormat format;
+
+    private BookService bookService;
+    private BookDto[] books;
+    private ListBookRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ConfigurableApplicationContext context = BenchmarkContext.get();
+        bookService = context.getBean(BookService.class);
+        request = new ListBookRequest(null, null, null, null, null, null, null, null, null, null);
+
+        books = IntStream.range(0, 100)
+                .mapToObj(i -> new BookDto(new AuthorDto("John" + i, "Doe" + i), "Book title " + i,
+                        String.valueOf(9780000000000L + i), Instant.parse("2023-05-01T00:00:00Z")))
+                .toArray(BookDto[]::new);
+
+        seed(context);
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        return bookService.export(IntStream.range(0, rows).mapToObj(i -> books[i % books.length]), format,
+                OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void exportAll() throws IOException {
+        bookService.exportAll(request, format, OutputStream.nullOutputStream());
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM book");
+
+        Author author = new Author();
+        author.setFirstName("John");
+        author.setLastName("Doe");
+        author.setContactInfo("john.doe@example.com");
+        author = context.getBean(AuthorRepository.class).save(author);
+
+        BookJdbcRepository bookJdbcRepository = context.getBean(BookJdbcRepository.class);
+        List<Book> batch = new ArrayList<>(SEED_BATCH);
+        for (int i = 0; i < rows; i++) {
+            Book book = new Book();
+            book.setAuthor(author);
+            book.setTitle("Book title " + i);
+            book.setIsbn(String.valueOf(9780000000000L + i));
+            book.setPublishDate(Instant.parse("2023-05-01T00:00:00Z").plusSeconds(i));
+            batch.add(book);
+            if (batch.size() == SEED_BATCH) {
+                bookJdbcRepository.insertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            bookJdbcRepository.insertAll(batch);
+        }
+    }
+}
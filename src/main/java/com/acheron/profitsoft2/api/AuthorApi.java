@@ -3,15 +3,17 @@ package com.acheron.profitsoft2.api;
 import com.acheron.profitsoft2.dto.request.AuthorSaveDto;
 import com.acheron.profitsoft2.dto.request.AuthorUpdateDto;
 import com.acheron.profitsoft2.dto.response.AuthorDto;
+import com.acheron.profitsoft2.dto.response.FilteredAuthorsResponse;
 import com.acheron.profitsoft2.service.AuthorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -27,14 +29,28 @@ public class AuthorApi {
     private final AuthorService authorService;
 
     /**
-     * Get all authors
+     * Get one page of authors, optionally filtered by last name prefix, continuing after the given cursor
      */
     @GetMapping
-    public List<AuthorDto> getAuthors() {
-        log.info("API call: Get all authors");
-        List<AuthorDto> authors = authorService.findAll();
-        log.info("Found {} authors", authors.size());
-        return authors;
+    public FilteredAuthorsResponse getAuthors(@RequestParam(required = false) String lastName,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = "100") int size) {
+        log.info("API call: Get authors after {}, size={}", after, size);
+        FilteredAuthorsResponse response = authorService.findAll(lastName, after, size);
+        log.info("Found {} authors", response.authors().size());
+        return response;
+    }
+
+    /**
+     * Stream all authors, optionally filtered by last name prefix, as newline-delimited JSON
+     */
+    @GetMapping("/_stream")
+    public ResponseEntity<StreamingResponseBody> streamAuthors(@RequestParam(required = false) String lastName) {
+        log.info("API call: Stream authors");
+        StreamingResponseBody body = out -> authorService.streamAll(lastName, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
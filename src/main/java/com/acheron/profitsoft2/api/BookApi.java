@@ -1,21 +1,40 @@
 package com.acheron.profitsoft2.api;
 
+import com.acheron.profitsoft2.dto.request.BookBulkUpdateDto;
 import com.acheron.profitsoft2.dto.request.BookSaveDto;
 import com.acheron.profitsoft2.dto.request.BookUpdateDto;
+import com.acheron.profitsoft2.dto.request.ExportFormat;
 import com.acheron.profitsoft2.dto.request.FilteredBooksResponse;
+import com.acheron.profitsoft2.dto.request.ImportMode;
 import com.acheron.profitsoft2.dto.request.ListBookRequest;
 import com.acheron.profitsoft2.dto.response.BookDto;
+import com.acheron.profitsoft2.dto.response.BulkResultDto;
+import com.acheron.profitsoft2.dto.response.ImportJobDto;
 import com.acheron.profitsoft2.dto.response.UploadResultDto;
+import com.acheron.profitsoft2.service.BookBulkService;
+import com.acheron.profitsoft2.service.BookImportService;
 import com.acheron.profitsoft2.service.BookService;
+import com.acheron.profitsoft2.service.ImportJobService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -27,8 +46,12 @@ import java.util.UUID;
 public class BookApi {
 
     private static final Logger log = LoggerFactory.getLogger(BookApi.class);
+    private static final String NEXT_WATERMARK_HEADER = "X-Next-Watermark";
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final ImportJobService importJobService;
+    private final BookBulkService bookBulkService;
 
     /**
      * Create a new book
@@ -40,24 +63,38 @@ public class BookApi {
     }
 
     /**
-     * Get a book by ID
+     * Get a book by ID, or 304 when the client's copy is still current
      */
     @GetMapping("/{id}")
-    public ResponseEntity<BookDto> findById(@PathVariable UUID id) {
+    public ResponseEntity<BookDto> findById(@PathVariable UUID id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("API call: Find book by ID {}", id);
+        if (ifNoneMatch != null) {
+            String etag = bookService.findEtag(id);
+            if (matches(ifNoneMatch, etag)) {
+                log.info("Book not modified: {}", id);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
         ResponseEntity<BookDto> response = bookService.findById(id);
         log.info("Book found: {}", response.getBody().title());
         return response;
     }
 
     /**
-     * Update a book by ID
+     * Update a book by ID, only if it still matches If-Match when given
      */
     @PutMapping("/{id}")
     public ResponseEntity<BookDto> update(@PathVariable UUID id,
-                                          @RequestBody @Valid BookUpdateDto dto) {
+                                          @RequestBody @Valid BookUpdateDto dto,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("API call: Update book ID {}", id);
-        ResponseEntity<BookDto> response = bookService.update(id, dto);
+        String etag = ifMatch != null ? ETag.parse(ifMatch).stream()
+                .findFirst()
+                .filter(tag -> !tag.isWildcard())
+                .map(ETag::tag)
+                .orElse(null) : null;
+        ResponseEntity<BookDto> response = bookService.update(id, dto, etag);
         log.info("Book updated: {}", response.getBody().title());
         return response;
     }
@@ -74,7 +111,42 @@ public class BookApi {
     }
 
     /**
-     * List books with filters and pagination
+     * Create many books at once, with a result per book
+     */
+    @PostMapping("/_bulk")
+    public ResponseEntity<BulkResultDto> saveAll(@RequestBody List<BookSaveDto> dtos) {
+        log.info("API call: Bulk save {} books", dtos.size());
+        ResponseEntity<BulkResultDto> response = ResponseEntity.ok(bookBulkService.create(dtos));
+        log.info("Books saved in bulk: succeeded={}, failed={}", response.getBody().succeeded(), response.getBody().failed());
+        return response;
+    }
+
+    /**
+     * Update many books at once, with a result per book
+     */
+    @PutMapping("/_bulk")
+    public ResponseEntity<BulkResultDto> updateAll(@RequestBody List<BookBulkUpdateDto> items) {
+        log.info("API call: Bulk update {} books", items.size());
+        ResponseEntity<BulkResultDto> response = ResponseEntity.ok(bookBulkService.update(items));
+        log.info("Books updated in bulk: succeeded={}, failed={}", response.getBody().succeeded(), response.getBody().failed());
+        return response;
+    }
+
+    /**
+     * Delete many books by ID at once, with a result per book
+     */
+    @DeleteMapping("/_bulk")
+    public ResponseEntity<BulkResultDto> deleteAll(@RequestBody List<UUID> ids) {
+        log.info("API call: Bulk delete {} books", ids.size());
+        ResponseEntity<BulkResultDto> response = ResponseEntity.ok(bookBulkService.delete(ids));
+        log.info("Books deleted in bulk: succeeded={}, failed={}", response.getBody().succeeded(), response.getBody().failed());
+        return response;
+    }
+
+    /**
+     * List books with filters and pagination.
+     * With changedSince only changed books are listed, together with the watermark of the next delta;
+     * deleted books never appear in a delta
      */
     @PostMapping("/_list")
     public ResponseEntity<FilteredBooksResponse> findAll(@RequestBody ListBookRequest request) {
@@ -85,29 +157,104 @@ public class BookApi {
     }
 
     /**
-     * Export filtered books as CSV
+     * Stream filtered books as newline-delimited JSON while rows are read
+     */
+    @PostMapping("/_stream")
+    public ResponseEntity<StreamingResponseBody> stream(@RequestBody ListBookRequest request) {
+        log.info("API call: Stream books as NDJSON");
+        StreamingResponseBody body = out -> bookService.streamAll(request, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Export filtered books, streamed to the client while rows are read.
+     * The format is taken from the format parameter, otherwise from the Accept header, and defaults to CSV.
+     * With changedSince only changed books are exported and the watermark of the next delta is sent as a header;
+     * deleted books never appear in a delta
      */
     @PostMapping("/_export")
-    public ResponseEntity<byte[]> export(@RequestBody ListBookRequest request) {
-        log.info("API call: Export books as CSV, page={}, size={}", request.page(), request.size());
-        byte[] file = bookService.exportAll(request);
-        String filename = "books_" + System.currentTimeMillis() + ".csv";
-        log.info("Exported {} bytes as file '{}'", file.length, filename);
+    public ResponseEntity<StreamingResponseBody> export(@RequestBody ListBookRequest request,
+                                                        @RequestParam(required = false) ExportFormat format,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        ExportFormat exportFormat = format != null ? format : negotiate(accept);
+        log.info("API call: Export books as {}, page={}, size={}", exportFormat, request.page(), request.size());
+        String filename = "books_" + System.currentTimeMillis() + "." + exportFormat.extension();
+        Instant watermark = request.changedSince() != null ? bookService.currentWatermark() : null;
+        StreamingResponseBody body = out -> bookService.exportAll(request, exportFormat, out);
+        log.info("Streaming export as file '{}'", filename);
 
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (watermark != null) {
+            response.header(NEXT_WATERMARK_HEADER, watermark.toString());
+        }
+        return response
                 .header("Content-Disposition", "attachment; filename=" + filename)
-                .contentType(MediaType.TEXT_PLAIN)
-                .body(file);
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType()))
+                .body(body);
+    }
+
+    /**
+     * Pick the export format of the most preferred acceptable media type, CSV if none matches.
+     */
+    private ExportFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return ExportFormat.CSV;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return ExportFormat.CSV;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : accepted) {
+            for (ExportFormat candidate : ExportFormat.values()) {
+                if (mediaType.getQualityValue() > 0 && mediaType.includes(MediaType.parseMediaType(candidate.mediaType()))) {
+                    return candidate;
+                }
+            }
+        }
+        return ExportFormat.CSV;
     }
 
     /**
      * Upload books from a JSON file
      */
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<UploadResultDto> uploadBooks(@RequestParam("file") MultipartFile file) {
-        log.info("API call: Upload books from file '{}'", file.getOriginalFilename());
-        ResponseEntity<UploadResultDto> response = ResponseEntity.ok(bookService.uploadBooks(file));
+    public ResponseEntity<UploadResultDto> uploadBooks(@RequestParam("file") MultipartFile file,
+                                                       @RequestParam(defaultValue = "INSERT") ImportMode mode) {
+        log.info("API call: Upload books from file '{}' ({})", file.getOriginalFilename(), mode);
+        ResponseEntity<UploadResultDto> response = ResponseEntity.ok(bookImportService.uploadBooks(file, mode));
         log.info("Books uploaded: imported={}, errors={}", response.getBody().imported(), response.getBody().errors().size());
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * Start a background import of books from a JSON file
+     */
+    @PostMapping(value = "/upload/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobDto> submitUpload(@RequestParam("file") MultipartFile file,
+                                                     @RequestParam(defaultValue = "INSERT") ImportMode mode) throws IOException {
+        log.info("API call: Submit import job for file '{}' ({})", file.getOriginalFilename(), mode);
+        ImportJobDto job = importJobService.submit(file, mode);
+        log.info("Import job submitted: {}", job.id());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/book/upload/jobs/" + job.id()))
+                .body(job);
+    }
+
+    /**
+     * Get progress and result of a background import
+     */
+    @GetMapping("/upload/jobs/{id}")
+    public ResponseEntity<ImportJobDto> findUploadJob(@PathVariable UUID id) {
+        log.info("API call: Find import job {}", id);
+        return ResponseEntity.ok(importJobService.find(id));
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        return ETag.parse(ifNoneMatch).stream().anyMatch(tag -> tag.isWildcard() || tag.tag().equals(etag));
+    }
+}
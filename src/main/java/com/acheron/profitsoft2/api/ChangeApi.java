@@ -0,0 +1,36 @@
+package com.acheron.profitsoft2.api;
+
+import com.acheron.profitsoft2.dto.response.ChangeBatchDto;
+import com.acheron.profitsoft2.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST API for following changes of books and authors.
+ */
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeApi {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeApi.class);
+
+    private final ChangeFeedService changeFeedService;
+
+    /**
+     * Wait for changes after the given sequence number; answers with an empty batch if none arrive in time
+     */
+    @GetMapping
+    public ChangeBatchDto getChanges(@RequestParam(defaultValue = "0") long after,
+                                     @RequestParam(defaultValue = "${changes.batch-size:500}") int limit) {
+        log.info("API call: Get changes after {}, limit={}", after, limit);
+        ChangeBatchDto batch = changeFeedService.poll(after, limit);
+        log.info("Returning {} changes, next={}", batch.changes().size(), batch.next());
+        return batch;
+    }
+}
@@ -0,0 +1,17 @@
+package com.acheron.profitsoft2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the bulk book endpoints.
+ *
+ * @param chunkSize number of items written in one transaction and one JDBC batch
+ * @param maxItems  maximum number of items accepted in one request
+ */
+@ConfigurationProperties(prefix = "book.bulk")
+public record BulkProperties(
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("10000") int maxItems
+) {
+}
@@ -0,0 +1,21 @@
+package com.acheron.profitsoft2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the change feed.
+ *
+ * @param batchSize    maximum number of changes delivered in one response
+ * @param maxWait      how long a poll waits for new changes before it answers with an empty batch
+ * @param pollInterval how often a waiting poll looks for new changes
+ */
+@ConfigurationProperties(prefix = "changes")
+public record ChangeFeedProperties(
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("30s") Duration maxWait,
+        @DefaultValue("500ms") Duration pollInterval
+) {
+}
@@ -0,0 +1,33 @@
+package com.acheron.profitsoft2.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the JSON book import pipeline.
+ *
+ * @param chunkSize        number of parsed records processed together before the next ones are read
+ * @param batchSize        number of rows sent to the database in one JDBC batch
+ * @param copyChunkSize    number of parsed records loaded together with COPY
+ * @param maxErrors        maximum number of error messages kept in the upload result, further failures are only counted
+ * @param workers          number of chunks imported at the same time, across all uploads; each holds a database connection
+ * @param jobWorkers       number of asynchronous import jobs running at the same time
+ * @param jobQueueCapacity number of asynchronous import jobs waiting for a worker before new uploads are rejected
+ * @param jobHeartbeat     how often an instance confirms that its unfinished import jobs are still alive
+ * @param jobLease         time without a heartbeat after which an unfinished import job is marked as interrupted
+ */
+@ConfigurationProperties(prefix = "book.import")
+public record ImportProperties(
+        @DefaultValue("500") int chunkSize,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("10000") int copyChunkSize,
+        @DefaultValue("1000") int maxErrors,
+        @DefaultValue("4") int workers,
+        @DefaultValue("2") int jobWorkers,
+        @DefaultValue("20") int jobQueueCapacity,
+        @DefaultValue("30s") Duration jobHeartbeat,
+        @DefaultValue("2m") Duration jobLease
+) {
+}
@@ -0,0 +1,50 @@
+package com.acheron.profitsoft2.config;
+
+import com.acheron.profitsoft2.metrics.MeteredDataSource;
+import com.acheron.profitsoft2.metrics.RequestMetricsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wires the JDBC statement meters: the data source is wrapped to time statements
+ * and API requests are wrapped to report them per endpoint.
+ * Hibernate statistics, including second-level and query cache hits and misses per region, are bound as well.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    static BeanPostProcessor meteredDataSourcePostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof MeteredDataSource)) {
+                    return new MeteredDataSource(dataSource, registry);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class),
+                "entityManagerFactory", Tags.empty()).bindTo(registry);
+    }
+
+    @Bean
+    FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MeterRegistry registry) {
+        return new FilterRegistrationBean<>(new RequestMetricsFilter(registry));
+    }
+}
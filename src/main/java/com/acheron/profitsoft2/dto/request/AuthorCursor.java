@@ -0,0 +1,40 @@
+package com.acheron.profitsoft2.dto.request;
+
+import com.acheron.profitsoft2.dto.response.AuthorView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a keyset-paginated author listing, ordered by (lower(lastName), id) when filtered by last name
+ * and by id otherwise.
+ * <p>
+ * Clients only see the opaque {@link #encode() encoded} form and pass it back unchanged.
+ */
+public record AuthorCursor(
+        UUID id,
+        String lastName
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public static AuthorCursor of(AuthorView author) {
+        return new AuthorCursor(author.id(), author.lastName());
+    }
+
+    public static AuthorCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new AuthorCursor(UUID.fromString(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String value = id + SEPARATOR + lastName;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
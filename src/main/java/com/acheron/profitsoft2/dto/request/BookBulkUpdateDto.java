@@ -0,0 +1,16 @@
+package com.acheron.profitsoft2.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public record BookBulkUpdateDto(
+        @NotNull
+        UUID id,
+
+        @NotNull
+        @Valid
+        BookUpdateDto book
+) {
+}
@@ -0,0 +1,40 @@
+package com.acheron.profitsoft2.dto.request;
+
+import com.acheron.profitsoft2.dto.response.BookView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a keyset-paginated book listing ordered by (publishDate, id).
+ * <p>
+ * Clients only see the opaque {@link #encode() encoded} form and pass it back unchanged.
+ */
+public record BookCursor(
+        Instant publishDate,
+        UUID id
+) {
+
+    private static final String SEPARATOR = "|";
+
+    public static BookCursor of(BookView book) {
+        return new BookCursor(book.publishDate(), book.id());
+    }
+
+    public static BookCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            return new BookCursor(Instant.parse(value.substring(0, separator)), UUID.fromString(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String value = publishDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,36 @@
+package com.acheron.profitsoft2.dto.request;
+
+/**
+ * File format of a book export.
+ */
+public enum ExportFormat {
+    /**
+     * RFC 4180 CSV, for spreadsheets and ad hoc use.
+     */
+    CSV("text/csv", "csv"),
+    /**
+     * The same CSV compressed with gzip, for transfers where bandwidth matters.
+     */
+    CSV_GZIP("application/gzip", "csv.gz"),
+    /**
+     * Compact binary columnar format with dictionary-encoded authors, for bulk ingestion.
+     * The layout is described in {@code BookColumnarWriter}.
+     */
+    COLUMNAR("application/x-book-columns", "bkc");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
@@ -2,10 +2,19 @@ package com.acheron.profitsoft2.dto.request;
 
 import com.acheron.profitsoft2.dto.response.BookDto;
 
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * @param nextWatermark watermark taken before the books were read, to pass as {@code changedSince}
+ *                      of the next delta request; only set when the request had {@code changedSince}.
+ *                      Deleted books never appear in a delta
+ */
 public record FilteredBooksResponse(
         List<BookDto> books,
-        int totalPages
+        Integer totalPages,
+        boolean hasNext,
+        String nextCursor,
+        Instant nextWatermark
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.acheron.profitsoft2.dto.request;
+
+/**
+ * How uploaded books are written to the database.
+ */
+public enum ImportMode {
+    /**
+     * Batched inserts, suited to regular uploads.
+     */
+    INSERT,
+    /**
+     * COPY into a staging table followed by a single insert per chunk, suited to large initial loads.
+     */
+    COPY,
+    /**
+     * Batched inserts that update the stored book with the same ISBN instead of failing,
+     * suited to feeds re-sending the whole catalogue. Books whose content is unchanged are not written.
+     */
+    UPSERT
+}
@@ -4,6 +4,7 @@ import com.acheron.profitsoft2.entity.Book;
 import com.acheron.profitsoft2.specification.BookSpecification;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Instant;
 import java.util.Date;
 import java.util.UUID;
 
@@ -14,33 +15,65 @@ public record ListBookRequest(
         String isbn,
         String authorId,
         Integer page,
-        Integer size
+        Integer size,
+        Pagination pagination,
+        String cursor,
+        Boolean skipCount,
+        Instant changedSince
 ) implements Filterable<Book> {
 
+    /**
+     * The filter part of this request in a normalized form, equal for requests that match the same books.
+     * Paging fields are left out.
+     */
+    public ListBookRequest filterKey() {
+        return new ListBookRequest(
+                title != null && !title.isBlank() ? title.trim().toLowerCase() : null,
+                publishedDate,
+                isbn != null && !isbn.isBlank() ? isbn.trim() : null,
+                authorId != null && !authorId.isBlank() ? authorId.trim().toLowerCase() : null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                changedSince
+        );
+    }
+
+    /**
+     * Built from the {@link #filterKey() normalized filter}, so requests sharing a filter key always match the same books.
+     */
     @Override
     public Specification<Book> toSpecification() {
+        ListBookRequest filter = filterKey();
         Specification<Book> specification = Specification.allOf();
 
 
-        if (title != null && !title.isBlank()) {
-            specification = specification.and(BookSpecification.titleContains(title));
+        if (filter.title() != null) {
+            specification = specification.and(BookSpecification.titleContains(filter.title()));
         }
 
 
-        if (isbn != null && !isbn.isBlank()) {
-            specification = specification.and(BookSpecification.hasIsbn(isbn));
+        if (filter.isbn() != null) {
+            specification = specification.and(BookSpecification.hasIsbn(filter.isbn()));
         }
 
 
-        if (authorId != null && !authorId.isBlank()) {
+        if (filter.authorId() != null) {
             try {
-                UUID authorId1 = UUID.fromString(authorId);
+                UUID authorId1 = UUID.fromString(filter.authorId());
                 specification = specification.and(BookSpecification.publishedBy(authorId1));
             } catch (IllegalArgumentException ignored) {
             }
         }
 
 
+        if (changedSince != null) {
+            specification = specification.and(BookSpecification.changedSince(changedSince));
+        }
+
+
         if (publishedDate != null) {
 
             if (publishedDate.publishDate() != null) {
@@ -77,6 +110,16 @@ public record ListBookRequest(
     }
 
 
+    /**
+     * OFFSET pages by page number and reports total pages.
+     * KEYSET continues after an opaque {@code cursor} ordered by publish date and skips counting,
+     * so every page costs the same regardless of its depth.
+     */
+    public enum Pagination {
+        OFFSET,
+        KEYSET
+    }
+
     public record PublishedDate(
             Date publishDate,
             Date publishedBefore,
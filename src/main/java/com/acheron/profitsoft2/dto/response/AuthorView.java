@@ -0,0 +1,14 @@
+package com.acheron.profitsoft2.dto.response;
+
+import java.util.UUID;
+
+/**
+ * Flat read-only projection of an author row, carrying the id used as paging cursor.
+ * Loaded straight from queries, without creating managed entities.
+ */
+public record AuthorView(
+        UUID id,
+        String firstName,
+        String lastName
+) {
+}
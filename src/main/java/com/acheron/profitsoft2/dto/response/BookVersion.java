@@ -0,0 +1,23 @@
+package com.acheron.profitsoft2.dto.response;
+
+import com.acheron.profitsoft2.entity.Book;
+
+/**
+ * Versions of a book and its author, which together identify one state of the book representation.
+ */
+public record BookVersion(
+        long book,
+        long author
+) {
+
+    public static BookVersion of(Book book) {
+        return new BookVersion(book.getVersion(), book.getAuthor().getVersion());
+    }
+
+    /**
+     * Strong entity tag of the book representation, without quotes.
+     */
+    public String etag() {
+        return book + "." + author;
+    }
+}
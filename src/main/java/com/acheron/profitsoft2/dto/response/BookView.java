@@ -0,0 +1,18 @@
+package com.acheron.profitsoft2.dto.response;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Flat read-only projection of a book row joined with its author.
+ * Loaded straight from queries, without creating managed entities.
+ */
+public record BookView(
+        UUID id,
+        String title,
+        String isbn,
+        Instant publishDate,
+        String authorFirstName,
+        String authorLastName
+) {
+}
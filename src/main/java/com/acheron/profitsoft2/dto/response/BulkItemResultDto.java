@@ -0,0 +1,31 @@
+package com.acheron.profitsoft2.dto.response;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one item of a bulk request.
+ *
+ * @param index position of the item in the request
+ * @param id    id of the affected book, if known
+ * @param error reason of the failure, null on success
+ */
+public record BulkItemResultDto(
+        int index,
+        UUID id,
+        Status status,
+        String error
+) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID,
+        CONFLICT
+    }
+
+    public boolean succeeded() {
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+    }
+}
@@ -0,0 +1,15 @@
+package com.acheron.profitsoft2.dto.response;
+
+import java.util.List;
+
+public record BulkResultDto(
+        int succeeded,
+        int failed,
+        List<BulkItemResultDto> items
+) {
+
+    public static BulkResultDto of(List<BulkItemResultDto> items) {
+        int succeeded = (int) items.stream().filter(BulkItemResultDto::succeeded).count();
+        return new BulkResultDto(succeeded, items.size() - succeeded, items);
+    }
+}
@@ -0,0 +1,12 @@
+package com.acheron.profitsoft2.dto.response;
+
+import java.util.List;
+
+/**
+ * @param next sequence number to pass as {@code after} to get the following changes
+ */
+public record ChangeBatchDto(
+        List<ChangeDto> changes,
+        long next
+) {
+}
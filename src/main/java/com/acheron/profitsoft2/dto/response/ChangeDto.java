@@ -0,0 +1,20 @@
+package com.acheron.profitsoft2.dto.response;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One change of a book or an author.
+ *
+ * @param seq       position in the change feed, increasing in commit order
+ * @param entity    changed table, {@code book} or {@code author}
+ * @param operation {@code INSERT}, {@code UPDATE} or {@code DELETE}
+ */
+public record ChangeDto(
+        long seq,
+        String entity,
+        UUID entityId,
+        String operation,
+        Instant changedAt
+) {
+}
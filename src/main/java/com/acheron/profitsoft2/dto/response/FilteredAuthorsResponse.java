@@ -0,0 +1,13 @@
+package com.acheron.profitsoft2.dto.response;
+
+import java.util.List;
+
+/**
+ * @param nextCursor cursor to pass as {@code after} to get the next page, null on the last page
+ */
+public record FilteredAuthorsResponse(
+        List<AuthorDto> authors,
+        boolean hasNext,
+        String nextCursor
+) {
+}
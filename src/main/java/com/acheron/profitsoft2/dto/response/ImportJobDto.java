@@ -0,0 +1,24 @@
+package com.acheron.profitsoft2.dto.response;
+
+import com.acheron.profitsoft2.entity.ImportJob;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * State of an asynchronous import.
+ *
+ * @param rowsPerSecond processed rows per second since the job started, up to now or until it finished
+ * @param result        the final upload result, present once the job has finished
+ */
+public record ImportJobDto(
+        UUID id,
+        String filename,
+        ImportJob.Status status,
+        int processed,
+        double rowsPerSecond,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        UploadResultDto result
+) {}
@@ -2,8 +2,15 @@ package com.acheron.profitsoft2.dto.response;
 
 import java.util.List;
 
+/**
+ * @param imported  number of inserted books
+ * @param updated   number of existing books changed by an upsert
+ * @param unchanged number of upserted books whose content was already stored, skipped without a write
+ */
 public record UploadResultDto(
         int imported,
+        int updated,
+        int unchanged,
         int failed,
         List<String> errors
 ) {}
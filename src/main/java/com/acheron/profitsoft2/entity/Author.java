@@ -6,11 +6,17 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
@@ -20,6 +26,10 @@ public class Author {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, mappedBy = "author", orphanRemoval = true)
     private List<Book> books;
 
@@ -37,4 +47,16 @@ public class Author {
     @Size(max = 600, message = "Contact info must be shorter than 600 characters")
     @NotBlank
     private String contactInfo;
+
+    /**
+     * Set by the database on insert.
+     */
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Set by the database on insert and by a trigger on every change.
+     */
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Instant updatedAt;
 }
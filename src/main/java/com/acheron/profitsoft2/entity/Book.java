@@ -7,11 +7,16 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
@@ -21,7 +26,11 @@ public class Book {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @ManyToOne(optional = false, fetch = FetchType.EAGER)
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "authorId", nullable = false)
     private Author author;
 
@@ -43,4 +52,16 @@ public class Book {
 
     @Column(name = "publish_date")
     private Instant publishDate;
+
+    /**
+     * Set by the database on insert.
+     */
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Set by the database on insert and by a trigger on every change.
+     */
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Instant updatedAt;
 }
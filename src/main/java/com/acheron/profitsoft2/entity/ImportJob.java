@@ -0,0 +1,75 @@
+package com.acheron.profitsoft2.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Asynchronous book import started by an upload, with its progress and final result.
+ */
+@Entity
+@Table(name = "import_job")
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private String filename;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    private int imported;
+
+    private int updated;
+
+    private int unchanged;
+
+    private int failed;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private List<String> errors;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    /**
+     * Application instance running the job.
+     */
+    private UUID owner;
+
+    /**
+     * Last time the owner reported the job as alive, see {@code book.import.job-heartbeat}.
+     */
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        /**
+         * The instance running the job stopped while the job was queued or running.
+         */
+        INTERRUPTED
+    }
+}
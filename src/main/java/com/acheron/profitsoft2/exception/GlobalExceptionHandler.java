@@ -2,7 +2,9 @@ package com.acheron.profitsoft2.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -106,4 +108,52 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
                 .status(HttpStatus.CONFLICT)
                 .body(new ErrorMessage(message, HttpStatus.CONFLICT, path));
     }
+
+    /**
+     * Handles PreconditionFailedException raised when an If-Match precondition does not hold.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with error message and HTTP 412
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorMessage> handlePreconditionFailed(PreconditionFailedException ex, WebRequest request) {
+        String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+        log.warn("Precondition failed: {} at {}", ex.getMessage(), path);
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .body(new ErrorMessage(ex.getMessage(), HttpStatus.PRECONDITION_FAILED, path));
+    }
+
+    /**
+     * Handles OptimisticLockingFailureException raised when an entity was modified concurrently.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with error message and HTTP 409
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorMessage> handleOptimisticLockingFailure(OptimisticLockingFailureException ex, WebRequest request) {
+        String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+        log.warn("Concurrent modification at {}: {}", path, ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ErrorMessage("Entity was modified concurrently, reload and retry", HttpStatus.CONFLICT, path));
+    }
+
+    /**
+     * Handles TaskRejectedException raised when the import queue is full.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with error message and HTTP 503
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorMessage> handleTaskRejected(TaskRejectedException ex, WebRequest request) {
+        String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+        log.warn("Task rejected at {}: {}", path, ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorMessage("Too many imports in progress, try again later", HttpStatus.SERVICE_UNAVAILABLE, path));
+    }
 }
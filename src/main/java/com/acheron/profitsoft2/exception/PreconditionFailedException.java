@@ -0,0 +1,7 @@
+package com.acheron.profitsoft2.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
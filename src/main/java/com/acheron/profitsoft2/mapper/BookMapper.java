@@ -1,10 +1,12 @@
 package com.acheron.profitsoft2.mapper;
 
 import com.acheron.profitsoft2.dto.request.BookSaveDto;
+import com.acheron.profitsoft2.dto.response.AuthorDto;
 import com.acheron.profitsoft2.dto.response.BookDto;
+import com.acheron.profitsoft2.dto.response.BookView;
 import com.acheron.profitsoft2.entity.Author;
 import com.acheron.profitsoft2.entity.Book;
-import com.acheron.profitsoft2.repository.AuthorRepository;
+import com.acheron.profitsoft2.service.AuthorCache;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,10 +18,15 @@ import java.util.UUID;
 public abstract class BookMapper {
 
     @Autowired
-    protected AuthorRepository authorRepository;
+    protected AuthorCache authorCache;
 
     public abstract BookDto map(Book book);
 
+    public BookDto map(BookView view) {
+        return new BookDto(new AuthorDto(view.authorFirstName(), view.authorLastName()),
+                view.title(), view.isbn(), view.publishDate());
+    }
+
     public abstract Book map(BookDto bookDto);
 
     @Mapping(target = "author", source = "authorId")
@@ -27,7 +34,7 @@ public abstract class BookMapper {
     public abstract Book map(BookSaveDto bookSaveDto);
 
     protected Author map(String authorId) {
-        return authorRepository.findById(UUID.fromString(authorId))
+        return authorCache.find(UUID.fromString(authorId))
                 .orElseThrow(() -> new IllegalArgumentException("Author not found: " + authorId));
     }
 
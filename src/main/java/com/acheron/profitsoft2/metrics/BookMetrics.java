@@ -0,0 +1,81 @@
+package com.acheron.profitsoft2.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Application meters of the book import, export and listing paths.
+ * <p>
+ * Together with the per-request JDBC meters recorded by {@link RequestMetricsFilter}
+ * they split request latency into database time, mapping time and the remaining serialization time.
+ */
+@Component
+public class BookMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter importedRows;
+    private final Counter updatedRows;
+    private final Counter unchangedRows;
+    private final Counter failedRows;
+    private final Counter exportedRows;
+    private final AtomicLong exportRowRate = new AtomicLong();
+
+    public BookMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.importedRows = Counter.builder("book.import.rows")
+                .description("Rows read from uploaded files")
+                .tag("result", "imported")
+                .register(registry);
+        this.updatedRows = Counter.builder("book.import.rows")
+                .description("Rows read from uploaded files")
+                .tag("result", "updated")
+                .register(registry);
+        this.unchangedRows = Counter.builder("book.import.rows")
+                .description("Rows read from uploaded files")
+                .tag("result", "unchanged")
+                .register(registry);
+        this.failedRows = Counter.builder("book.import.rows")
+                .description("Rows read from uploaded files")
+                .tag("result", "failed")
+                .register(registry);
+        this.exportedRows = Counter.builder("book.export.rows")
+                .description("Rows written by book exports in any format")
+                .register(registry);
+        Gauge.builder("book.export.row.rate", exportRowRate, AtomicLong::get)
+                .description("Rows per second of the last finished export")
+                .register(registry);
+    }
+
+    public void recordImport(int imported, int updated, int unchanged, int failed) {
+        importedRows.increment(imported);
+        updatedRows.increment(updated);
+        unchangedRows.increment(unchanged);
+        failedRows.increment(failed);
+    }
+
+    public void recordExport(long rows, long nanos) {
+        exportedRows.increment(rows);
+        exportRowRate.set(nanos > 0 ? rows * TimeUnit.SECONDS.toNanos(1) / nanos : rows);
+    }
+
+    /**
+     * Time mapping of entities or projections to response DTOs.
+     *
+     * @param operation the service operation the mapping belongs to, used as a tag
+     */
+    public <T> T timeMapping(String operation, Supplier<T> mapping) {
+        return Timer.builder("book.mapping")
+                .description("Time spent mapping books to response DTOs")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(mapping);
+    }
+}
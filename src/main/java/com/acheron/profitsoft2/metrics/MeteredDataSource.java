@@ -0,0 +1,104 @@
+package com.acheron.profitsoft2.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data source that times every executed JDBC statement.
+ * <p>
+ * Statement executions are recorded in the global {@code jdbc.statements} timer
+ * and in the {@link RequestJdbcStats} of the calling request thread.
+ * The meter registry is looked up on first use, as it may itself depend on the data source.
+ */
+public class MeteredDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private volatile Timer statementTimer;
+
+    public MeteredDataSource(DataSource target, ObjectProvider<MeterRegistry> registry) {
+        super(target);
+        this.registry = registry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return wrap(statement, method.getReturnType());
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S extends Statement> S wrap(Statement statement, Class<?> type) {
+        return proxy((Class<S>) type, (S) statement, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                statementTimer().record(nanos, TimeUnit.NANOSECONDS);
+                RequestJdbcStats.record(nanos);
+            }
+        });
+    }
+
+    private Timer statementTimer() {
+        Timer timer = statementTimer;
+        if (timer == null) {
+            timer = Timer.builder("jdbc.statements")
+                    .description("Execution time of JDBC statements")
+                    .register(registry.getObject());
+            statementTimer = timer;
+        }
+        return timer;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, StatementHandler handler) {
+        return type.cast(Proxy.newProxyInstance(MeteredDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> target.toString();
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementHandler {
+        Object invoke(Object proxy, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,41 @@
+package com.acheron.profitsoft2.metrics;
+
+/**
+ * JDBC statements executed by the current request thread, collected by {@link MeteredDataSource}.
+ */
+final class RequestJdbcStats {
+
+    private static final ThreadLocal<RequestJdbcStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    private RequestJdbcStats() {
+    }
+
+    static RequestJdbcStats start() {
+        RequestJdbcStats stats = new RequestJdbcStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    static void record(long nanos) {
+        RequestJdbcStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.nanos += nanos;
+        }
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    long nanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,61 @@
+package com.acheron.profitsoft2.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the number of JDBC statements and the JDBC time of every API request, tagged like {@code http.server.requests}.
+ * <p>
+ * Only statements executed on the request thread are counted; the body of a streamed response is written later
+ * on another thread and reports through its own meters.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+
+    public RequestMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestJdbcStats stats = RequestJdbcStats.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestJdbcStats.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+
+            DistributionSummary.builder("http.server.requests.jdbc.statements")
+                    .description("JDBC statements executed per request")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(stats.statements());
+            Timer.builder("http.server.requests.jdbc")
+                    .description("JDBC time per request")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(stats.nanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
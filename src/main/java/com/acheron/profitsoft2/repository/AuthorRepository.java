@@ -2,10 +2,22 @@ package com.acheron.profitsoft2.repository;
 
 import com.acheron.profitsoft2.entity.Author;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.UUID;
 
 @Repository
-public interface AuthorRepository extends JpaRepository<Author, UUID> {
+public interface AuthorRepository extends JpaRepository<Author, UUID>, AuthorRepositoryCustom {
+
+    /**
+     * Delete the author with a single statement, without loading it or cascading to its books.
+     * The author's books must already be deleted.
+     *
+     * @return number of deleted authors
+     */
+    @Modifying
+    @Query("delete from Author a where a.id = :id")
+    int deleteWithoutCascade(UUID id);
 }
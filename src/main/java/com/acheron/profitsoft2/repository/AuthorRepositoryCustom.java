@@ -0,0 +1,33 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.dto.request.AuthorCursor;
+import com.acheron.profitsoft2.dto.response.AuthorView;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read-only author queries written against the index on (lower(last_name) COLLATE "C", id).
+ * <p>
+ * A last name prefix is turned into a range of that index, and pages filtered by it are ordered by the index,
+ * so a page reads only its own rows however many authors share the prefix. Unfiltered pages are ordered by id.
+ * Rows are projected into {@link AuthorView}, so no entities are hydrated.
+ */
+public interface AuthorRepositoryCustom {
+
+    /**
+     * Find at most {@code limit} authors after the cursor.
+     *
+     * @param lastNamePrefix optional case-insensitive prefix of the last name
+     * @param after          last author of the previous page, null for the first page
+     */
+    List<AuthorView> findPage(String lastNamePrefix, AuthorCursor after, int limit);
+
+    /**
+     * Stream authors through a forward-only cursor fetching {@code fetchSize} rows at a time.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @param lastNamePrefix optional case-insensitive prefix of the last name
+     */
+    Stream<AuthorView> streamAll(String lastNamePrefix, int fetchSize);
+}
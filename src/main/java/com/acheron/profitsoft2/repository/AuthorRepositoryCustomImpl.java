@@ -0,0 +1,103 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.dto.request.AuthorCursor;
+import com.acheron.profitsoft2.dto.response.AuthorView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class AuthorRepositoryCustomImpl implements AuthorRepositoryCustom {
+
+    /**
+     * Byte-wise collation, so the index supports both prefix ranges and ordering whatever the database collation is.
+     */
+    private static final String SORT_KEY = "lower(last_name) COLLATE \"C\"";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AuthorView> findPage(String lastNamePrefix, AuthorCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id, first_name, last_name FROM author WHERE true");
+        Map<String, Object> params = new HashMap<>();
+        appendPrefix(sql, params, lastNamePrefix);
+        if (lastNamePrefix != null) {
+            if (after != null) {
+                sql.append(" AND (").append(SORT_KEY).append(", id) > (lower(CAST(:afterLastName AS text)) COLLATE \"C\", :afterId)");
+                params.put("afterLastName", after.lastName());
+                params.put("afterId", after.id());
+            }
+            sql.append(" ORDER BY ").append(SORT_KEY).append(", id");
+        } else {
+            if (after != null) {
+                sql.append(" AND id > :afterId");
+                params.put("afterId", after.id());
+            }
+            sql.append(" ORDER BY id");
+        }
+
+        Query query = entityManager.createNativeQuery(sql.toString()).setMaxResults(limit);
+        params.forEach(query::setParameter);
+        return ((List<?>) query.getResultList()).stream().map(AuthorRepositoryCustomImpl::toView).toList();
+    }
+
+    @Override
+    public Stream<AuthorView> streamAll(String lastNamePrefix, int fetchSize) {
+        StringBuilder sql = new StringBuilder("SELECT id, first_name, last_name FROM author WHERE true");
+        Map<String, Object> params = new HashMap<>();
+        appendPrefix(sql, params, lastNamePrefix);
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        params.forEach(query::setParameter);
+        return ((Stream<?>) query.getResultStream()).map(AuthorRepositoryCustomImpl::toView);
+    }
+
+    /**
+     * Restrict to the index range of last names starting with the prefix: from the prefix up to,
+     * but excluding, the prefix with its last character incremented.
+     */
+    private static void appendPrefix(StringBuilder sql, Map<String, Object> params, String prefix) {
+        if (prefix == null) {
+            return;
+        }
+        String from = prefix.toLowerCase(Locale.ROOT);
+        sql.append(" AND ").append(SORT_KEY).append(" >= :from");
+        params.put("from", from);
+        String to = upperBound(from);
+        if (to != null) {
+            sql.append(" AND ").append(SORT_KEY).append(" < :to");
+            params.put("to", to);
+        }
+    }
+
+    /**
+     * Smallest string greater than every string starting with the prefix in code point order,
+     * which is the order of the "C" collation on UTF-8. Null if there is none.
+     */
+    static String upperBound(String prefix) {
+        String head = prefix;
+        while (!head.isEmpty()) {
+            int last = head.codePointBefore(head.length());
+            head = head.substring(0, head.length() - Character.charCount(last));
+            if (last < Character.MAX_CODE_POINT) {
+                int next = last + 1 == Character.MIN_SURROGATE ? Character.MAX_SURROGATE + 1 : last + 1;
+                return head + Character.toString(next);
+            }
+        }
+        return null;
+    }
+
+    private static AuthorView toView(Object row) {
+        Object[] columns = (Object[]) row;
+        return new AuthorView((UUID) columns[0], (String) columns[1], (String) columns[2]);
+    }
+}
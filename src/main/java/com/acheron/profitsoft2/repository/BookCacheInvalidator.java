@@ -0,0 +1,89 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the Hibernate caches of books consistent with writes done with plain JDBC.
+ * <p>
+ * Hibernate invalidates cached books and book listings on its own writes, but not on writes that bypass it.
+ * For those the {@code book} table space is marked as modified the way Hibernate does for its own bulk statements:
+ * pre-invalidated right away and invalidated again once the transaction completes. Cached listings are checked
+ * against that timestamp when read, so a listing read before the commit and cached after it is rejected as stale.
+ * Changed books are evicted from the entity cache once their transaction completes.
+ */
+@Component
+public class BookCacheInvalidator {
+
+    /**
+     * Query cache region holding book listings.
+     */
+    public static final String LIST_REGION = "book-list";
+
+    private static final String[] BOOK_SPACES = {"book"};
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public BookCacheInvalidator(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Invalidate cached book listings after new books were inserted.
+     */
+    public void evictListsAfterCompletion() {
+        evictAfterCompletion(List.of());
+    }
+
+    /**
+     * Evict the given books and invalidate cached book listings after the books were changed or deleted.
+     */
+    public void evictAfterCompletion(Collection<UUID> bookIds) {
+        afterCompletion(cache -> bookIds.forEach(id -> cache.evictEntityData(Book.class, id)));
+    }
+
+    /**
+     * Evict all cached books and invalidate cached book listings after books were deleted without knowing their ids.
+     */
+    public void evictAllAfterCompletion() {
+        afterCompletion(cache -> cache.evictEntityData(Book.class));
+    }
+
+    private void afterCompletion(Consumer<Cache> eviction) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        TimestampsCache timestamps = sessionFactory.getCache().getTimestampsCache();
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+
+        if (entityManager == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.accept(sessionFactory.getCache());
+            try (SessionImplementor session = (SessionImplementor) sessionFactory.openSession()) {
+                timestamps.invalidate(BOOK_SPACES, session);
+            }
+            return;
+        }
+
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        timestamps.preInvalidate(BOOK_SPACES, session);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                eviction.accept(sessionFactory.getCache());
+                timestamps.invalidate(BOOK_SPACES, session);
+            }
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.entity.Book;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Bulk load of books with PostgreSQL {@code COPY FROM STDIN}.
+ * <p>
+ * Rows are copied into a session-local staging table first and moved into {@code book} with a single insert,
+ * so rows referencing unknown authors or repeating an ISBN are skipped and reported instead of failing the load.
+ * Must be called within a transaction, the staging table is emptied on commit.
+ */
+@Repository
+public class BookCopyRepository {
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE IF NOT EXISTS book_staging
+            (
+                row_no       integer,
+                id           uuid,
+                title        text,
+                isbn         text,
+                publish_date timestamptz,
+                author_id    uuid
+            ) ON COMMIT DELETE ROWS""";
+
+    private static final String COPY_SQL =
+            "COPY book_staging (row_no, id, title, isbn, publish_date, author_id) FROM STDIN (FORMAT csv)";
+
+    /**
+     * Staged rows with their author check and their position among staged rows sharing the same ISBN.
+     */
+    private static final String RANKED_CTE = """
+            WITH ranked AS (
+                SELECT s.*,
+                       a.id IS NOT NULL AS author_exists,
+                       row_number() OVER (PARTITION BY s.isbn, a.id IS NOT NULL ORDER BY s.row_no) AS isbn_rank
+                FROM book_staging s
+                LEFT JOIN author a ON a.id = s.author_id
+            )
+            """;
+
+    private static final String INSERT_SQL = RANKED_CTE + """
+            INSERT INTO book (id, title, isbn, publish_date, author_id)
+            SELECT id, title, isbn, coalesce(publish_date, now()), author_id
+            FROM ranked
+            WHERE author_exists AND isbn_rank = 1
+            ON CONFLICT (isbn) DO NOTHING
+            RETURNING id""";
+
+    private static final String REJECTED_SQL = RANKED_CTE + """
+            SELECT row_no,
+                   CASE WHEN NOT author_exists THEN 'Author not found: ' || author_id
+                        ELSE 'Duplicate ISBN in file: ' || isbn END AS reason
+            FROM ranked
+            WHERE NOT author_exists OR isbn_rank > 1""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookCacheInvalidator bookCacheInvalidator;
+
+    public BookCopyRepository(JdbcTemplate jdbcTemplate, BookCacheInvalidator bookCacheInvalidator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookCacheInvalidator = bookCacheInvalidator;
+    }
+
+    /**
+     * Copy the books into the book table. Assigns an id to every book that does not have one.
+     *
+     * @return rejection reasons of the rows that were not inserted, by their position in {@code books}
+     */
+    public SortedMap<Integer, String> copyAll(List<Book> books) {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+        String csv = toCsv(books);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv));
+            } catch (IOException e) {
+                throw new SQLException("Failed to copy books into staging table", e);
+            }
+        });
+
+        SortedMap<Integer, String> rejected = new TreeMap<>();
+        jdbcTemplate.query(REJECTED_SQL, rs -> {
+            rejected.put(rs.getInt("row_no"), rs.getString("reason"));
+        });
+
+        Set<UUID> inserted = new HashSet<>(jdbcTemplate.queryForList(INSERT_SQL, UUID.class));
+        bookCacheInvalidator.evictListsAfterCompletion();
+        for (int i = 0; i < books.size(); i++) {
+            if (!rejected.containsKey(i) && !inserted.contains(books.get(i).getId())) {
+                rejected.put(i, "ISBN already exists: " + books.get(i).getIsbn());
+            }
+        }
+        return rejected;
+    }
+
+    private String toCsv(List<Book> books) {
+        StringBuilder csv = new StringBuilder(books.size() * 128);
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            if (book.getId() == null) {
+                book.setId(UUID.randomUUID());
+            }
+            csv.append(i).append(',')
+                    .append(book.getId()).append(',');
+            appendQuoted(csv, book.getTitle());
+            csv.append(',');
+            appendQuoted(csv, book.getIsbn());
+            csv.append(',');
+            if (book.getPublishDate() != null) {
+                csv.append(book.getPublishDate());
+            }
+            csv.append(',')
+                    .append(book.getAuthor().getId()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static void appendQuoted(StringBuilder csv, String value) {
+        csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,216 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.entity.Book;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access to the book table for bulk writes that would be too slow through the persistence context.
+ * <p>
+ * Ids are generated on the client the same way {@code GenerationType.UUID} does it,
+ * and publish dates are bound as UTC offsets just like Hibernate binds {@link java.time.Instant}.
+ */
+@Repository
+public class BookJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO book (id, title, isbn, publish_date, author_id) VALUES (?, ?, ?, coalesce(?, now()), ?)";
+    /**
+     * Upsert of one batch passed as parallel arrays. Stored books are matched by ISBN and keep their id;
+     * a missing publish date keeps the stored one. Rows whose content hash equals the stored one are filtered out
+     * before the insert, so they are neither locked nor written and cost no WAL; the same check on the conflict
+     * update only guards against a book changed concurrently. Unchanged rows are not returned.
+     * The publish date is hashed as the {@code timestamp} that would be stored, like the generated column does;
+     * hashing the {@code timestamptz} value would shift it by the session time zone.
+     * {@code xmax = 0} tells inserted rows from updated ones.
+     */
+    private static final String UPSERT_SQL = """
+            INSERT INTO book AS b (id, title, isbn, publish_date, author_id)
+            SELECT i.id, i.title, i.isbn, p.publish_date, i.author_id
+            FROM unnest(?::uuid[], ?::text[], ?::text[], ?::timestamptz[], ?::uuid[])
+                     AS i(id, title, isbn, publish_date, author_id)
+            LEFT JOIN book e ON e.isbn = i.isbn
+            CROSS JOIN LATERAL (SELECT coalesce(i.publish_date::timestamp, e.publish_date, localtimestamp) AS publish_date) p
+            WHERE e.id IS NULL
+               OR e.content_hash IS DISTINCT FROM
+                  md5(i.title || '|' || i.author_id::text || '|' || extract(epoch FROM p.publish_date)::text)::uuid
+            ON CONFLICT (isbn) DO UPDATE
+                SET title        = excluded.title,
+                    publish_date = excluded.publish_date,
+                    author_id    = excluded.author_id,
+                    version      = b.version + 1
+                WHERE b.content_hash IS DISTINCT FROM
+                      md5(excluded.title || '|' || excluded.author_id::text || '|'
+                          || extract(epoch FROM excluded.publish_date)::text)::uuid
+            RETURNING b.id, b.xmax = 0 AS inserted""";
+    private static final String UPDATE_SQL =
+            "UPDATE book SET title = coalesce(?, title), isbn = coalesce(?, isbn), version = version + 1 WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM book WHERE id = ANY(?) RETURNING id";
+    private static final String EXISTING_ISBNS_SQL = "SELECT isbn FROM book WHERE isbn = ANY(?)";
+    private static final String DELETE_BY_AUTHOR_SQL = "DELETE FROM book WHERE author_id = ?";
+    private static final String DELETE_BY_AUTHOR_BATCH_SQL =
+            "DELETE FROM book WHERE id IN (SELECT id FROM book WHERE author_id = ? LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookCacheInvalidator bookCacheInvalidator;
+
+    public BookJdbcRepository(JdbcTemplate jdbcTemplate, BookCacheInvalidator bookCacheInvalidator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookCacheInvalidator = bookCacheInvalidator;
+    }
+
+    /**
+     * Insert all books with JDBC batching. Assigns an id to every book that does not have one.
+     */
+    public void insertAll(List<Book> books) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, books, books.size(), this::bindInsert);
+        bookCacheInvalidator.evictListsAfterCompletion();
+    }
+
+    /**
+     * Insert a single book. Assigns an id if the book does not have one.
+     */
+    public void insert(Book book) {
+        jdbcTemplate.update(INSERT_SQL, ps -> bindInsert(ps, book));
+        bookCacheInvalidator.evictListsAfterCompletion();
+    }
+
+    /**
+     * Find which of the given ISBNs are already stored, with a single statement served by the unique ISBN index.
+     */
+    public Set<String> findExistingIsbns(Collection<String> isbns) {
+        return new HashSet<>(jdbcTemplate.query(EXISTING_ISBNS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", isbns.toArray())),
+                (rs, rowNum) -> rs.getString(1)));
+    }
+
+    /**
+     * Insert the books, or update the stored books with the same ISBNs, in one statement.
+     * ISBNs must be unique within {@code books}. Assigns an id to every book that does not have one;
+     * updated books keep their stored id.
+     */
+    public UpsertResult upsertAll(List<Book> books) {
+        String[][] columns = new String[5][books.size()];
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            if (book.getId() == null) {
+                book.setId(UUID.randomUUID());
+            }
+            columns[0][i] = book.getId().toString();
+            columns[1][i] = book.getTitle();
+            columns[2][i] = book.getIsbn();
+            columns[3][i] = book.getPublishDate() != null ? book.getPublishDate().toString() : null;
+            columns[4][i] = book.getAuthor().getId().toString();
+        }
+
+        List<UUID> written = new ArrayList<>();
+        int[] inserted = new int[1];
+        jdbcTemplate.query(UPSERT_SQL, ps -> {
+            for (int c = 0; c < columns.length; c++) {
+                ps.setArray(c + 1, ps.getConnection().createArrayOf("text", columns[c]));
+            }
+        }, (RowCallbackHandler) rs -> {
+            written.add(rs.getObject("id", UUID.class));
+            if (rs.getBoolean("inserted")) {
+                inserted[0]++;
+            }
+        });
+        bookCacheInvalidator.evictAfterCompletion(written);
+        return new UpsertResult(inserted[0], written.size() - inserted[0], books.size() - written.size());
+    }
+
+    /**
+     * Update title and ISBN of all books with JDBC batching; null values keep the stored ones.
+     *
+     * @return number of updated rows per book, 0 for unknown ids
+     */
+    public int[] updateAll(List<Book> books) {
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, books, books.size(), this::bindUpdate);
+        bookCacheInvalidator.evictAfterCompletion(books.stream().map(Book::getId).toList());
+        return counts.length > 0 ? counts[0] : new int[0];
+    }
+
+    /**
+     * Update title and ISBN of a single book; null values keep the stored ones.
+     *
+     * @return number of updated rows, 0 for an unknown id
+     */
+    public int update(Book book) {
+        int count = jdbcTemplate.update(UPDATE_SQL, ps -> bindUpdate(ps, book));
+        bookCacheInvalidator.evictAfterCompletion(List.of(book.getId()));
+        return count;
+    }
+
+    /**
+     * Delete all books with the given ids in one statement.
+     *
+     * @return ids of the deleted books
+     */
+    public Set<UUID> deleteAll(Collection<UUID> ids) {
+        List<UUID> deleted = jdbcTemplate.query(DELETE_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray())),
+                (rs, rowNum) -> rs.getObject(1, UUID.class));
+        bookCacheInvalidator.evictAfterCompletion(deleted);
+        return new HashSet<>(deleted);
+    }
+
+    /**
+     * Delete at most {@code limit} books of the author, so a single statement holds only a bounded number of row locks.
+     *
+     * @return number of deleted books, less than {@code limit} once the author has no books left
+     */
+    public int deleteByAuthor(UUID authorId, int limit) {
+        int count = jdbcTemplate.update(DELETE_BY_AUTHOR_BATCH_SQL, authorId, limit);
+        bookCacheInvalidator.evictAllAfterCompletion();
+        return count;
+    }
+
+    /**
+     * Delete all books of the author in one statement.
+     *
+     * @return number of deleted books
+     */
+    public int deleteByAuthor(UUID authorId) {
+        int count = jdbcTemplate.update(DELETE_BY_AUTHOR_SQL, authorId);
+        bookCacheInvalidator.evictAllAfterCompletion();
+        return count;
+    }
+
+    private void bindUpdate(PreparedStatement ps, Book book) throws SQLException {
+        ps.setString(1, book.getTitle());
+        ps.setString(2, book.getIsbn());
+        ps.setObject(3, book.getId());
+    }
+
+    private void bindInsert(PreparedStatement ps, Book book) throws SQLException {
+        if (book.getId() == null) {
+            book.setId(UUID.randomUUID());
+        }
+        ps.setObject(1, book.getId());
+        ps.setString(2, book.getTitle());
+        ps.setString(3, book.getIsbn());
+        ps.setObject(4, book.getPublishDate() != null
+                ? OffsetDateTime.ofInstant(book.getPublishDate(), ZoneOffset.UTC)
+                : null, Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setObject(5, book.getAuthor().getId());
+    }
+
+    /**
+     * Outcome of an upsert: inserted books, changed stored books and stored books left as they were.
+     */
+    public record UpsertResult(int inserted, int updated, int unchanged) {
+    }
+}
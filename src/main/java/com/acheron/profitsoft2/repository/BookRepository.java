@@ -1,13 +1,24 @@
 package com.acheron.profitsoft2.repository;
 
+import com.acheron.profitsoft2.dto.response.BookVersion;
 import com.acheron.profitsoft2.entity.Book;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, UUID>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, UUID>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
 
+    @Override
+    @EntityGraph(attributePaths = "author")
+    Optional<Book> findById(UUID id);
+
+    @Query("select new com.acheron.profitsoft2.dto.response.BookVersion(b.version, a.version) "
+            + "from Book b join b.author a where b.id = :id")
+    Optional<BookVersion> findVersionById(UUID id);
 }
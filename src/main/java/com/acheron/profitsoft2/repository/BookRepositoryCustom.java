@@ -0,0 +1,50 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.dto.response.BookView;
+import com.acheron.profitsoft2.entity.Book;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read-only book queries that Spring Data can not derive, implemented with the Criteria API.
+ * Rows are projected into {@link BookView} together with their author's name,
+ * so no entities are hydrated and every read costs a single statement.
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Find one page of books matching the specification without counting all matches.
+     * Reads one row more than the page size to find out whether a next page exists.
+     * Results are kept in the {@link BookCacheInvalidator#LIST_REGION} query cache region.
+     */
+    Slice<BookView> findSlice(Specification<Book> spec, Pageable pageable);
+
+    /**
+     * Find at most {@code limit} books matching the specification in the given order.
+     * Results are kept in the {@link BookCacheInvalidator#LIST_REGION} query cache region.
+     */
+    List<BookView> findLimited(Specification<Book> spec, Sort sort, int limit);
+
+    /**
+     * Stream books matching the specification through a forward-only cursor fetching {@code fetchSize} rows at a time.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    Stream<BookView> streamAll(Specification<Book> spec, int fetchSize);
+
+    /**
+     * Watermark to resume a delta export from: the start of the oldest transaction open in the database,
+     * or the current database time if that is earlier.
+     * <p>
+     * Written rows are stamped with the start time of their transaction, which may commit long after it started.
+     * No transaction still open now can stamp a row earlier than this watermark, so a write committing after it
+     * was read is always part of the next delta. Long open transactions hold the watermark back,
+     * which only delivers some changes twice.
+     */
+    Instant deltaWatermark();
+}
@@ -0,0 +1,89 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.dto.response.BookView;
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String DELTA_WATERMARK_SQL = """
+            SELECT least(now(), (SELECT min(xact_start)
+                                 FROM pg_stat_activity
+                                 WHERE datname = current_database()
+                                   AND backend_type = 'client backend'))""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<BookView> findSlice(Specification<Book> spec, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<BookView> books = entityManager.createQuery(query(spec, pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(size + 1)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, BookCacheInvalidator.LIST_REGION)
+                .getResultList();
+        boolean hasNext = books.size() > size;
+        return new SliceImpl<>(hasNext ? books.subList(0, size) : books, pageable, hasNext);
+    }
+
+    @Override
+    public List<BookView> findLimited(Specification<Book> spec, Sort sort, int limit) {
+        return entityManager.createQuery(query(spec, sort))
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, BookCacheInvalidator.LIST_REGION)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<BookView> streamAll(Specification<Book> spec, int fetchSize) {
+        return entityManager.createQuery(query(spec, Sort.unsorted()))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    @Override
+    public Instant deltaWatermark() {
+        return (Instant) entityManager.createNativeQuery(DELTA_WATERMARK_SQL, Instant.class).getSingleResult();
+    }
+
+    private CriteriaQuery<BookView> query(Specification<Book> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookView> query = cb.createQuery(BookView.class);
+        Root<Book> root = query.from(Book.class);
+        Join<Book, Author> author = root.join("author");
+        query.select(cb.construct(BookView.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("isbn"),
+                root.get("publishDate"),
+                author.get("firstName"),
+                author.get("lastName")
+        ));
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return query;
+    }
+}
@@ -0,0 +1,67 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.dto.response.ChangeDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Access to the {@code change_log} table, filled by database triggers on every write to books and authors.
+ * <p>
+ * Triggers write entries without a sequence number, in the transaction of the change. Numbers are assigned later
+ * by {@link #assignSequence()}, which only sees committed entries and never runs twice at the same time,
+ * so sequence numbers follow commit order and a reader continuing after a number can not miss a late commit.
+ */
+@Repository
+public class ChangeLogRepository {
+
+    private static final long SEQUENCE_LOCK = 0x6368616e67656cL;
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+    private static final String ASSIGN_SQL = """
+            UPDATE change_log c
+            SET seq = n.seq
+            FROM (SELECT id, nextval('change_log_seq') AS seq
+                  FROM (SELECT id FROM change_log WHERE seq IS NULL ORDER BY id) pending) n
+            WHERE c.id = n.id""";
+    private static final String FIND_SQL = """
+            SELECT seq, entity, entity_id, operation, changed_at
+            FROM change_log
+            WHERE seq > ?
+            ORDER BY seq
+            LIMIT ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChangeLogRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Number the committed entries that have no sequence number yet. Must run in its own transaction;
+     * does nothing if another transaction is numbering entries right now.
+     *
+     * @return number of numbered entries
+     */
+    public int assignSequence() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(LOCK_SQL, Boolean.class, SEQUENCE_LOCK))) {
+            return 0;
+        }
+        return jdbcTemplate.update(ASSIGN_SQL);
+    }
+
+    /**
+     * Find at most {@code limit} numbered entries after the given sequence number, in sequence order.
+     */
+    public List<ChangeDto> findAfter(long after, int limit) {
+        return jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> new ChangeDto(
+                rs.getLong("seq"),
+                rs.getString("entity"),
+                rs.getObject("entity_id", UUID.class),
+                rs.getString("operation"),
+                rs.getObject("changed_at", OffsetDateTime.class).toInstant()
+        ), after, limit);
+    }
+}
@@ -0,0 +1,33 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.imported = :imported, j.updated = :updated, j.unchanged = :unchanged, "
+            + "j.failed = :failed where j.id = :id")
+    void updateProgress(UUID id, int imported, int updated, int unchanged, int failed);
+
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.heartbeatAt = :heartbeatAt where j.owner = :owner and j.status in :unfinished")
+    int heartbeat(UUID owner, Collection<ImportJob.Status> unfinished, Instant heartbeatAt);
+
+    @Transactional
+    @Modifying
+    @Query("update ImportJob j set j.status = :status, j.finishedAt = :finishedAt where j.status in :unfinished "
+            + "and (j.heartbeatAt is null or j.heartbeatAt < :staleBefore)")
+    int markStale(Collection<ImportJob.Status> unfinished, Instant staleBefore, ImportJob.Status status, Instant finishedAt);
+}
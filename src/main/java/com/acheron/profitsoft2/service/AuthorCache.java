@@ -0,0 +1,107 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.repository.AuthorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Bounded LRU cache of author references keyed by id.
+ * <p>
+ * Used when books are linked to their authors, where the same few authors are looked up again and again.
+ * Cached instances are detached and must only be used as references or read.
+ * Entries are evicted by {@link AuthorService} whenever an author is updated or deleted;
+ * a load that raced with an eviction is not put into the cache.
+ */
+@Component
+public class AuthorCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorCache.class);
+
+    private final AuthorRepository authorRepository;
+    private final Map<UUID, Author> authors;
+    private long generation;
+
+    public AuthorCache(AuthorRepository authorRepository, @Value("${author.cache.max-size:10000}") int maxSize) {
+        this.authorRepository = authorRepository;
+        this.authors = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Author> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Find a single author, loading it from the database on a cache miss.
+     */
+    public Optional<Author> find(UUID id) {
+        long loadGeneration;
+        synchronized (authors) {
+            Author cached = authors.get(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            loadGeneration = generation;
+        }
+        Optional<Author> loaded = authorRepository.findById(id);
+        loaded.ifPresent(author -> put(List.of(author), loadGeneration));
+        return loaded;
+    }
+
+    /**
+     * Find all given authors, loading every missing one with a single query.
+     *
+     * @return found authors by id, unknown ids are absent
+     */
+    public Map<UUID, Author> findAll(Collection<UUID> ids) {
+        Map<UUID, Author> found = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        long loadGeneration;
+        synchronized (authors) {
+            loadGeneration = generation;
+            for (UUID id : ids) {
+                Author cached = authors.get(id);
+                if (cached != null) {
+                    found.put(id, cached);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            log.debug("Loading {} authors missing from cache", missing.size());
+            List<Author> loaded = authorRepository.findAllById(missing);
+            put(loaded, loadGeneration);
+            loaded.forEach(author -> found.put(author.getId(), author));
+        }
+        return found;
+    }
+
+    public void evict(UUID id) {
+        synchronized (authors) {
+            authors.remove(id);
+            generation++;
+        }
+    }
+
+    public void clear() {
+        synchronized (authors) {
+            authors.clear();
+            generation++;
+        }
+    }
+
+    private void put(List<Author> loaded, long loadGeneration) {
+        synchronized (authors) {
+            if (loadGeneration == generation) {
+                loaded.forEach(author -> authors.put(author.getId(), author));
+            }
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package com.acheron.profitsoft2.service;
 
+import com.acheron.profitsoft2.dto.request.AuthorCursor;
 import com.acheron.profitsoft2.dto.request.AuthorSaveDto;
 import com.acheron.profitsoft2.dto.request.AuthorUpdateDto;
 import com.acheron.profitsoft2.dto.response.AuthorDto;
+import com.acheron.profitsoft2.dto.response.AuthorView;
+import com.acheron.profitsoft2.dto.response.FilteredAuthorsResponse;
 import com.acheron.profitsoft2.entity.Author;
 import com.acheron.profitsoft2.mapper.AuthorMapper;
 import com.acheron.profitsoft2.repository.AuthorRepository;
+import com.acheron.profitsoft2.repository.BookJdbcRepository;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Service for handling Author entity operations with logging.
@@ -22,27 +31,78 @@ import java.util.UUID;
 public class AuthorService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthorService.class);
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_FETCH_SIZE = 1000;
 
     private final AuthorRepository authorRepository;
     private final AuthorMapper authorMapper;
+    private final AuthorCache authorCache;
+    private final BookJdbcRepository bookJdbcRepository;
+    private final BookCountCache bookCountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final NdjsonWriter ndjsonWriter;
+    private final int deleteBatchSize;
 
-    public AuthorService(AuthorRepository authorRepository, AuthorMapper authorMapper) {
+    public AuthorService(AuthorRepository authorRepository,
+                         AuthorMapper authorMapper,
+                         AuthorCache authorCache,
+                         BookJdbcRepository bookJdbcRepository,
+                         BookCountCache bookCountCache,
+                         TransactionTemplate transactionTemplate,
+                         NdjsonWriter ndjsonWriter,
+                         @Value("${author.delete.batch-size:5000}") int deleteBatchSize) {
         this.authorRepository = authorRepository;
         this.authorMapper = authorMapper;
+        this.authorCache = authorCache;
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.bookCountCache = bookCountCache;
+        this.transactionTemplate = transactionTemplate;
+        this.ndjsonWriter = ndjsonWriter;
+        this.deleteBatchSize = deleteBatchSize;
     }
 
     /**
-     * Get all authors.
+     * Get one page of authors, continuing after the given cursor.
+     * Pages filtered by last name are ordered by last name and id, other pages by id.
      *
-     * @return list of AuthorDto
+     * @param lastName optional case-insensitive prefix of the last name
+     * @param after    cursor of the previous page, null for the first page
+     * @param size     page size, at most {@value #MAX_PAGE_SIZE}
      */
-    public List<AuthorDto> findAll() {
-        log.info("Fetching all authors");
-        List<AuthorDto> authors = authorRepository.findAll().stream()
-                .map(authorMapper::toDto)
-                .toList();
-        log.info("Found {} authors", authors.size());
-        return authors;
+    @Transactional(readOnly = true)
+    public FilteredAuthorsResponse findAll(String lastName, String after, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        log.info("Fetching authors after {}, size={}", after, size);
+        AuthorCursor cursor = after != null ? AuthorCursor.decode(after) : null;
+
+        List<AuthorView> authors = authorRepository.findPage(prefix(lastName), cursor, size + 1);
+        boolean hasNext = authors.size() > size;
+        List<AuthorView> page = hasNext ? authors.subList(0, size) : authors;
+        List<AuthorDto> dtos = page.stream().map(a -> new AuthorDto(a.firstName(), a.lastName())).toList();
+
+        log.info("Found {} authors (has next: {})", dtos.size(), hasNext);
+        return new FilteredAuthorsResponse(dtos, hasNext, hasNext ? AuthorCursor.of(page.getLast()).encode() : null);
+    }
+
+    /**
+     * Write all matching authors as newline-delimited JSON while they are read from the database.
+     *
+     * @param lastName optional case-insensitive prefix of the last name
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(String lastName, OutputStream out) {
+        log.info("Streaming authors");
+        try (Stream<AuthorDto> authors = authorRepository.streamAll(prefix(lastName), STREAM_FETCH_SIZE)
+                .map(a -> new AuthorDto(a.firstName(), a.lastName()))) {
+            long rows = ndjsonWriter.write(authors, out);
+            log.info("Streamed {} authors", rows);
+        }
+    }
+
+    private static String prefix(String lastName) {
+        return lastName != null && !lastName.isBlank() ? lastName.trim() : null;
     }
 
     /**
@@ -79,12 +139,17 @@ public class AuthorService {
         if (dto.contactInfo() != null) author.setContactInfo(dto.contactInfo());
 
         Author saved = authorRepository.save(author);
+        authorCache.evict(id);
         log.info("Updated author with ID: {}", saved.getId());
         return ResponseEntity.ok(authorMapper.toDto(saved));
     }
 
     /**
-     * Delete author by ID.
+     * Delete author by ID together with all of its books.
+     * <p>
+     * Books are deleted with bulk statements of at most {@code deleteBatchSize} rows, each in its own transaction,
+     * instead of being loaded and removed one by one through the cascade. Books added meanwhile are deleted
+     * in the same transaction as the author.
      *
      * @param id Author UUID
      */
@@ -94,7 +159,21 @@ public class AuthorService {
             log.warn("Author not found: {}", id);
             throw new RuntimeException("Author not found: " + id);
         }
-        authorRepository.deleteById(id);
-        log.info("Deleted author with ID: {}", id);
+
+        long deletedBooks = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> bookJdbcRepository.deleteByAuthor(id, deleteBatchSize));
+            deletedBooks += batch;
+        } while (batch == deleteBatchSize);
+
+        deletedBooks += transactionTemplate.execute(status -> {
+            int remaining = bookJdbcRepository.deleteByAuthor(id);
+            authorRepository.deleteWithoutCascade(id);
+            return remaining;
+        });
+        authorCache.evict(id);
+        bookCountCache.clear();
+        log.info("Deleted author with ID: {} and {} books", id, deletedBooks);
     }
 }
@@ -0,0 +1,279 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.config.BulkProperties;
+import com.acheron.profitsoft2.dto.request.BookBulkUpdateDto;
+import com.acheron.profitsoft2.dto.request.BookSaveDto;
+import com.acheron.profitsoft2.dto.response.BulkItemResultDto;
+import com.acheron.profitsoft2.dto.response.BulkItemResultDto.Status;
+import com.acheron.profitsoft2.dto.response.BulkResultDto;
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.entity.Book;
+import com.acheron.profitsoft2.repository.BookJdbcRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Service for creating, updating and deleting many books in one request.
+ * <p>
+ * Valid items are written with JDBC batches, one transaction per chunk of {@link BulkProperties#chunkSize()} items.
+ * A failing batch is rolled back to a savepoint and retried item by item, so every item gets its own result
+ * and one conflicting ISBN does not fail its neighbours.
+ */
+@Service
+public class BookBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookBulkService.class);
+
+    private final BookJdbcRepository bookJdbcRepository;
+    private final AuthorCache authorCache;
+    private final BookCountCache bookCountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate savepointTemplate;
+    private final Validator validator;
+    private final BulkProperties properties;
+
+    public BookBulkService(BookJdbcRepository bookJdbcRepository,
+                           AuthorCache authorCache,
+                           BookCountCache bookCountCache,
+                           TransactionTemplate transactionTemplate,
+                           Validator validator,
+                           BulkProperties properties) {
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.authorCache = authorCache;
+        this.bookCountCache = bookCountCache;
+        this.transactionTemplate = transactionTemplate;
+        this.savepointTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.validator = validator;
+        this.properties = properties;
+    }
+
+    /**
+     * Create all valid books.
+     */
+    public BulkResultDto create(List<BookSaveDto> dtos) {
+        log.info("Creating {} books in bulk", dtos.size());
+        checkSize(dtos);
+        BulkItemResultDto[] results = new BulkItemResultDto[dtos.size()];
+
+        String[] errors = new String[dtos.size()];
+        UUID[] authorIds = new UUID[dtos.size()];
+        for (int i = 0; i < dtos.size(); i++) {
+            errors[i] = validate(dtos.get(i));
+            if (errors[i] == null) {
+                try {
+                    authorIds[i] = UUID.fromString(dtos.get(i).authorId());
+                } catch (IllegalArgumentException e) {
+                    errors[i] = "authorId: Invalid UUID format";
+                }
+            }
+        }
+        Map<UUID, Author> authors = authorCache.findAll(Arrays.stream(authorIds)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        List<Integer> indexes = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            BookSaveDto dto = dtos.get(i);
+            String error = errors[i];
+            Author author = error == null ? authors.get(authorIds[i]) : null;
+            if (error == null && author == null) {
+                error = "Author not found: " + authorIds[i];
+            }
+            if (error != null) {
+                results[i] = new BulkItemResultDto(i, null, Status.INVALID, error);
+                continue;
+            }
+
+            Book book = new Book();
+            book.setAuthor(author);
+            book.setTitle(dto.title());
+            book.setIsbn(dto.isbn());
+            book.setPublishDate(Instant.now());
+            indexes.add(i);
+            books.add(book);
+        }
+
+        write(indexes, books, results, this::insertChunk);
+        return finish("Created", results);
+    }
+
+    /**
+     * Update title and ISBN of all given books. Blank values keep the stored ones.
+     */
+    public BulkResultDto update(List<BookBulkUpdateDto> items) {
+        log.info("Updating {} books in bulk", items.size());
+        checkSize(items);
+        BulkItemResultDto[] results = new BulkItemResultDto[items.size()];
+
+        List<Integer> indexes = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BookBulkUpdateDto item = items.get(i);
+            String error = validate(item);
+            if (error != null) {
+                results[i] = new BulkItemResultDto(i, item.id(), Status.INVALID, error);
+                continue;
+            }
+
+            Book book = new Book();
+            book.setId(item.id());
+            book.setTitle(blankToNull(item.book().title()));
+            book.setIsbn(blankToNull(item.book().isbn()));
+            indexes.add(i);
+            books.add(book);
+        }
+
+        write(indexes, books, results, this::updateChunk);
+        return finish("Updated", results);
+    }
+
+    /**
+     * Delete all given books.
+     */
+    public BulkResultDto delete(List<UUID> ids) {
+        log.info("Deleting {} books in bulk", ids.size());
+        checkSize(ids);
+        BulkItemResultDto[] results = new BulkItemResultDto[ids.size()];
+
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                results[i] = new BulkItemResultDto(i, null, Status.INVALID, "id: must not be null");
+            } else {
+                indexes.add(i);
+            }
+        }
+
+        for (int from = 0; from < indexes.size(); from += properties.chunkSize()) {
+            List<Integer> chunk = indexes.subList(from, Math.min(from + properties.chunkSize(), indexes.size()));
+            Set<UUID> deleted = transactionTemplate.execute(status ->
+                    bookJdbcRepository.deleteAll(chunk.stream().map(ids::get).toList()));
+            for (int index : chunk) {
+                UUID id = ids.get(index);
+                results[index] = deleted.contains(id)
+                        ? new BulkItemResultDto(index, id, Status.DELETED, null)
+                        : new BulkItemResultDto(index, id, Status.NOT_FOUND, "Book not found: " + id);
+            }
+        }
+        return finish("Deleted", results);
+    }
+
+    private void write(List<Integer> indexes, List<Book> books, BulkItemResultDto[] results, ChunkWriter writer) {
+        for (int from = 0; from < books.size(); from += properties.chunkSize()) {
+            int to = Math.min(from + properties.chunkSize(), books.size());
+            List<Integer> chunkIndexes = indexes.subList(from, to);
+            List<Book> chunk = books.subList(from, to);
+            try {
+                transactionTemplate.executeWithoutResult(status -> writer.write(chunkIndexes, chunk, results));
+            } catch (RuntimeException e) {
+                log.warn("Transaction of {} books rolled back: {}", chunk.size(), e.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    int index = chunkIndexes.get(i);
+                    results[index] = new BulkItemResultDto(index, chunk.get(i).getId(), Status.CONFLICT,
+                            "Transaction rolled back: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void insertChunk(List<Integer> indexes, List<Book> books, BulkItemResultDto[] results) {
+        try {
+            savepointTemplate.executeWithoutResult(status -> bookJdbcRepository.insertAll(books));
+            for (int i = 0; i < books.size(); i++) {
+                results[indexes.get(i)] = new BulkItemResultDto(indexes.get(i), books.get(i).getId(), Status.CREATED, null);
+            }
+        } catch (DataAccessException batchFailure) {
+            log.warn("Batch of {} books failed, retrying one by one: {}", books.size(), batchFailure.getMostSpecificCause().getMessage());
+            for (int i = 0; i < books.size(); i++) {
+                Book book = books.get(i);
+                int index = indexes.get(i);
+                try {
+                    savepointTemplate.executeWithoutResult(status -> bookJdbcRepository.insert(book));
+                    results[index] = new BulkItemResultDto(index, book.getId(), Status.CREATED, null);
+                } catch (DataAccessException e) {
+                    results[index] = new BulkItemResultDto(index, null, Status.CONFLICT, e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void updateChunk(List<Integer> indexes, List<Book> books, BulkItemResultDto[] results) {
+        try {
+            int[] counts = savepointTemplate.execute(status -> bookJdbcRepository.updateAll(books));
+            for (int i = 0; i < books.size(); i++) {
+                results[indexes.get(i)] = updated(indexes.get(i), books.get(i).getId(), counts[i]);
+            }
+        } catch (DataAccessException batchFailure) {
+            log.warn("Batch of {} books failed, retrying one by one: {}", books.size(), batchFailure.getMostSpecificCause().getMessage());
+            for (int i = 0; i < books.size(); i++) {
+                Book book = books.get(i);
+                int index = indexes.get(i);
+                try {
+                    Integer count = savepointTemplate.execute(status -> bookJdbcRepository.update(book));
+                    results[index] = updated(index, book.getId(), count);
+                } catch (DataAccessException e) {
+                    results[index] = new BulkItemResultDto(index, book.getId(), Status.CONFLICT, e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private static BulkItemResultDto updated(int index, UUID id, int count) {
+        return count != 0
+                ? new BulkItemResultDto(index, id, Status.UPDATED, null)
+                : new BulkItemResultDto(index, id, Status.NOT_FOUND, "Book not found: " + id);
+    }
+
+    private BulkResultDto finish(String action, BulkItemResultDto[] results) {
+        bookCountCache.clear();
+        BulkResultDto result = BulkResultDto.of(List.of(results));
+        log.info("{} {} books in bulk, {} failed", action, result.succeeded(), result.failed());
+        return result;
+    }
+
+    private void checkSize(List<?> items) {
+        if (items.size() > properties.maxItems()) {
+            throw new IllegalArgumentException("Too many items in one request: " + items.size() + ", at most " + properties.maxItems());
+        }
+    }
+
+    /**
+     * Validate a bulk item like a single request body would be validated.
+     *
+     * @return the violations joined into one message, or null if the item is valid
+     */
+    private String validate(Object item) {
+        if (item == null) {
+            return "item must not be null";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value : null;
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(List<Integer> indexes, List<Book> books, BulkItemResultDto[] results);
+    }
+}
@@ -0,0 +1,161 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.dto.response.AuthorDto;
+import com.acheron.profitsoft2.dto.response.BookDto;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes books in a compact binary columnar format straight to an output stream.
+ * <p>
+ * Books are buffered into row groups of {@value #ROW_GROUP_SIZE} rows, each written as one column after another
+ * and flushed, so memory use does not depend on the number of rows. Every column is prefixed with its length,
+ * so readers can skip the columns they do not need. Layout:
+ * <pre>
+ * file         := "BKC1" rowGroup* varint(0)
+ * rowGroup     := varint rowCount, column(authors), column(author), column(title), column(isbn), column(publishDate)
+ * column       := varint byteLength, bytes
+ * authors      := varint count, (string firstName, string lastName)*   dictionary of this row group
+ * author       := varint index into authors, per row
+ * title        := string, per row
+ * isbn         := varint per row: 13 digits as value + 1, 10 digits as 10^13 + value + 1, otherwise 0 and a string
+ * publishDate  := varint per row: 0 if missing, otherwise zigzag(epoch micros - previous epoch micros) + 1,
+ *                 previous starting at 0 in each row group
+ * string       := varint byteLength, UTF-8 bytes
+ * varint       := unsigned LEB128
+ * </pre>
+ */
+@Component
+public class BookColumnarWriter {
+
+    static final byte[] MAGIC = {'B', 'K', 'C', '1'};
+    static final int ROW_GROUP_SIZE = 8192;
+    private static final long ISBN_10_OFFSET = 10_000_000_000_000L;
+
+    /**
+     * @return number of written rows
+     */
+    public long write(Stream<BookDto> books, OutputStream out) throws IOException {
+        out.write(MAGIC);
+        RowGroup group = new RowGroup();
+        long rows = 0;
+        for (BookDto b : (Iterable<BookDto>) books::iterator) {
+            group.add(b);
+            rows++;
+            if (group.rows == ROW_GROUP_SIZE) {
+                group.writeTo(out);
+                out.flush();
+                group = new RowGroup();
+            }
+        }
+        if (group.rows > 0) {
+            group.writeTo(out);
+        }
+        writeVarint(out, 0);
+        out.flush();
+        return rows;
+    }
+
+    private static final class RowGroup {
+
+        private final Map<AuthorDto, Integer> dictionary = new HashMap<>();
+        private final ByteArrayOutputStream authors = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream author = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream title = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream isbn = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream publishDate = new ByteArrayOutputStream();
+        private long previousMicros;
+        private int rows;
+
+        void add(BookDto b) {
+            Integer index = dictionary.get(b.author());
+            if (index == null) {
+                index = dictionary.size();
+                dictionary.put(b.author(), index);
+                writeString(authors, b.author().firstName());
+                writeString(authors, b.author().lastName());
+            }
+            writeVarint(author, index);
+            writeString(title, b.title());
+            writeIsbn(b.isbn());
+            writePublishDate(b.publishDate());
+            rows++;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            writeVarint(out, rows);
+            ByteArrayOutputStream dictionaryColumn = new ByteArrayOutputStream(authors.size() + 5);
+            writeVarint(dictionaryColumn, dictionary.size());
+            authors.writeTo(dictionaryColumn);
+            for (ByteArrayOutputStream column : new ByteArrayOutputStream[]{dictionaryColumn, author, title, isbn, publishDate}) {
+                writeVarint(out, column.size());
+                column.writeTo(out);
+            }
+        }
+
+        private void writeIsbn(String value) {
+            if (value != null && (value.length() == 13 || value.length() == 10) && isDigits(value)) {
+                long number = Long.parseLong(value);
+                writeVarint(isbn, (value.length() == 10 ? ISBN_10_OFFSET + number : number) + 1);
+            } else {
+                writeVarint(isbn, 0);
+                writeString(isbn, value != null ? value : "");
+            }
+        }
+
+        private void writePublishDate(Instant value) {
+            if (value == null) {
+                writeVarint(publishDate, 0);
+                return;
+            }
+            long micros = ChronoUnit.MICROS.between(Instant.EPOCH, value);
+            long delta = micros - previousMicros;
+            writeVarint(publishDate, ((delta << 1) ^ (delta >> 63)) + 1);
+            previousMicros = micros;
+        }
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        byte[] bytes = new byte[10];
+        int length = 0;
+        while ((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+        out.write(bytes, 0, length);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
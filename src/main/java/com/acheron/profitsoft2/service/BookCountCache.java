@@ -0,0 +1,56 @@
+package com.acheron.profitsoft2.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of book counts keyed by a normalized listing filter.
+ * <p>
+ * Paging through one result set asks for the same count on every page; within the TTL it is counted only once.
+ * All entries are dropped whenever books are written, so counts are never older than the last local write.
+ */
+@Component
+public class BookCountCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final long ttlNanos;
+    private final Map<Object, Entry> counts = new ConcurrentHashMap<>();
+
+    public BookCountCache(@Value("${book.list.count-cache-ttl:30s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Get the cached count for the filter or compute and cache it.
+     */
+    public long count(Object filter, LongSupplier counter) {
+        long now = System.nanoTime();
+        Entry entry = counts.get(filter);
+        if (entry != null && now - entry.createdAt() < ttlNanos) {
+            return entry.count();
+        }
+
+        long count = counter.getAsLong();
+        if (counts.size() >= MAX_ENTRIES) {
+            counts.values().removeIf(e -> now - e.createdAt() >= ttlNanos);
+            if (counts.size() >= MAX_ENTRIES) {
+                counts.clear();
+            }
+        }
+        counts.put(filter, new Entry(count, now));
+        return count;
+    }
+
+    public void clear() {
+        counts.clear();
+    }
+
+    private record Entry(long count, long createdAt) {
+    }
+}
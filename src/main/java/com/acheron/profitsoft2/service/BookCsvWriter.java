@@ -0,0 +1,78 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.dto.response.BookDto;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Writes books as RFC 4180 CSV straight to an output stream.
+ * <p>
+ * Records end with CRLF. Fields containing a comma, a double quote or a line break are enclosed in double quotes,
+ * with double quotes inside doubled. A missing publish date is written as an empty field.
+ */
+@Component
+public class BookCsvWriter {
+
+    private static final String HEADER = "title,isbn,publish_date,author_first_name,author_last_name\r\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @return number of written rows
+     */
+    public long write(Stream<BookDto> books, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(HEADER);
+
+        long rows = 0;
+        for (BookDto b : (Iterable<BookDto>) books::iterator) {
+            writeField(writer, b.title());
+            writer.write(',');
+            writeField(writer, b.isbn());
+            writer.write(',');
+            writeField(writer, b.publishDate() != null ? b.publishDate().toString() : null);
+            writer.write(',');
+            writeField(writer, b.author().firstName());
+            writer.write(',');
+            writeField(writer, b.author().lastName());
+            writer.write("\r\n");
+            rows++;
+        }
+
+        writer.flush();
+        return rows;
+    }
+
+    private void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                writer.write(value, start, i + 1 - start);
+                writer.write('"');
+                start = i + 1;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+
+    private boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,427 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.config.ImportProperties;
+import com.acheron.profitsoft2.dto.request.ImportMode;
+import com.acheron.profitsoft2.dto.request.UploadBookDto;
+import com.acheron.profitsoft2.dto.response.UploadResultDto;
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.entity.Book;
+import com.acheron.profitsoft2.exception.EntityNotFoundException;
+import com.acheron.profitsoft2.metrics.BookMetrics;
+import com.acheron.profitsoft2.repository.BookCopyRepository;
+import com.acheron.profitsoft2.repository.BookJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for importing books from JSON files.
+ * <p>
+ * The file is read token by token and split into fixed-size chunks, so memory use does not depend on the size
+ * of the uploaded file. Chunks are imported concurrently by a bounded pool of workers shared by all imports,
+ * each chunk in its own transaction; the parser waits while too many chunks of one file are in flight.
+ * Before writing, ISBNs repeated within a chunk or already stored are rejected, so known conflicts
+ * never reach the unique constraint. Remaining rows are written with JDBC batches; a failing batch is rolled back
+ * to a savepoint and retried row by row, so only the broken rows fail and each of them is reported separately.
+ * In {@link ImportMode#COPY} mode larger chunks are loaded through {@link BookCopyRepository} instead,
+ * which leaves author and ISBN checks to the database and reports the rejected rows.
+ * In {@link ImportMode#UPSERT} mode stored books with the same ISBN are updated instead, unless their content
+ * is unchanged, and inserted, updated and unchanged books are counted separately.
+ */
+@Service
+public class BookImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookImportService.class);
+
+    private final BookJdbcRepository bookJdbcRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final AuthorCache authorCache;
+    private final BookCountCache bookCountCache;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate savepointTemplate;
+    private final Validator validator;
+    private final ImportProperties properties;
+    private final BookMetrics bookMetrics;
+    private final ExecutorService workers;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public BookImportService(BookJdbcRepository bookJdbcRepository,
+                             BookCopyRepository bookCopyRepository,
+                             AuthorCache authorCache,
+                             BookCountCache bookCountCache,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             ImportProperties properties,
+                             BookMetrics bookMetrics) {
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.bookCopyRepository = bookCopyRepository;
+        this.authorCache = authorCache;
+        this.bookCountCache = bookCountCache;
+        this.transactionTemplate = transactionTemplate;
+        this.savepointTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.validator = validator;
+        this.properties = properties;
+        this.bookMetrics = bookMetrics;
+        this.workers = Executors.newFixedThreadPool(properties.workers(),
+                Thread.ofVirtual().name("book-import-worker-", 0).factory());
+    }
+
+    /**
+     * Upload books from JSON file.
+     */
+    public UploadResultDto uploadBooks(MultipartFile file, ImportMode mode) {
+        log.info("Uploading books from file: {} ({})", file.getOriginalFilename(), mode);
+        return importBooks(file, mode, progress -> {
+        });
+    }
+
+    /**
+     * Import books from a JSON array, reporting the running result after every chunk.
+     * The callback is invoked by one worker at a time, with results that never decrease.
+     */
+    public UploadResultDto importBooks(InputStreamSource source, ImportMode mode, Consumer<UploadResultDto> progress) {
+        ImportTally tally = new ImportTally(properties.maxErrors());
+        int chunkSize = mode == ImportMode.COPY ? properties.copyChunkSize() : properties.chunkSize();
+        int maxInFlight = properties.workers() * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try (InputStream in = source.getInputStream();
+             JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of books");
+            }
+
+            List<UploadBookDto> chunk = new ArrayList<>(chunkSize);
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Unexpected end of JSON array");
+                }
+                chunk.add(objectMapper.readValue(parser, UploadBookDto.class));
+                if (chunk.size() == chunkSize) {
+                    submitChunk(chunk, mode, tally, inFlight, progress);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submitChunk(chunk, mode, tally, inFlight, progress);
+            }
+        } catch (Exception e) {
+            log.error("Invalid JSON file: {}", e.getMessage());
+            tally.error("Invalid JSON file: " + e.getMessage());
+        } finally {
+            // wait for the chunks still in flight
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+
+        log.info("Imported {} books, updated {}, unchanged {}, {} errors", tally.imported, tally.updated, tally.unchanged, tally.failed);
+        return tally.toDto();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void submitChunk(List<UploadBookDto> chunk, ImportMode mode, ImportTally tally, Semaphore inFlight,
+                             Consumer<UploadResultDto> progress) {
+        inFlight.acquireUninterruptibly();
+        try {
+            workers.execute(() -> {
+                try {
+                    tally.add(importChunk(chunk, mode), progress);
+                } catch (RuntimeException e) {
+                    log.error("Failed to import chunk of {} books", chunk.size(), e);
+                    tally.add(ImportTally.failedChunk(properties.maxErrors(), chunk.size(), e), progress);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private ImportTally importChunk(List<UploadBookDto> chunk, ImportMode mode) {
+        ImportTally tally = new ImportTally(properties.maxErrors());
+        Function<UUID, Author> authors = mode == ImportMode.COPY ? BookImportService::authorReference : findAuthors(chunk)::get;
+
+        List<Book> books = new ArrayList<>(chunk.size());
+        for (UploadBookDto dto : chunk) {
+            try {
+                books.add(toBook(dto, authors));
+            } catch (Exception e) {
+                tally.fail(dto.title(), e.getMessage());
+            }
+        }
+
+        if (mode != ImportMode.COPY) {
+            books = rejectRepeatedIsbns(books, tally);
+        }
+
+        if (!books.isEmpty()) {
+            List<Book> valid = books;
+            int failedBefore = tally.failed;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (mode == ImportMode.COPY) {
+                        copyChunk(valid, tally);
+                        return;
+                    }
+                    if (mode == ImportMode.UPSERT) {
+                        for (int from = 0; from < valid.size(); from += properties.batchSize()) {
+                            upsertBatch(valid.subList(from, Math.min(from + properties.batchSize(), valid.size())), tally);
+                        }
+                        return;
+                    }
+                    List<Book> fresh = rejectExistingIsbns(valid, tally);
+                    for (int from = 0; from < fresh.size(); from += properties.batchSize()) {
+                        insertBatch(fresh.subList(from, Math.min(from + properties.batchSize(), fresh.size())), tally);
+                    }
+                });
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Transaction of {} books rolled back: {}", books.size(), e.getMostSpecificCause().getMessage());
+                tally.imported = 0;
+                tally.updated = 0;
+                tally.unchanged = 0;
+                tally.failed = failedBefore + books.size();
+                tally.error("Chunk of " + books.size() + " books rolled back: " + e.getMostSpecificCause().getMessage());
+            }
+            bookCountCache.clear();
+        }
+        bookMetrics.recordImport(tally.imported, tally.updated, tally.unchanged, tally.failed);
+        log.info("Processed chunk of {} books (imported: {}, updated: {}, unchanged: {})",
+                chunk.size(), tally.imported, tally.updated, tally.unchanged);
+        return tally;
+    }
+
+    private Map<UUID, Author> findAuthors(List<UploadBookDto> chunk) {
+        Set<UUID> authorIds = new HashSet<>();
+        for (UploadBookDto dto : chunk) {
+            try {
+                authorIds.add(UUID.fromString(dto.authorId()));
+            } catch (Exception ignored) {
+                // reported per row by toBook
+            }
+        }
+        return authorCache.findAll(authorIds);
+    }
+
+    /**
+     * Author carrying only its id, for rows whose author is checked by the database.
+     */
+    private static Author authorReference(UUID id) {
+        Author author = new Author();
+        author.setId(id);
+        return author;
+    }
+
+    private Book toBook(UploadBookDto dto, Function<UUID, Author> authors) {
+        UUID authorId = UUID.fromString(dto.authorId());
+        Author author = authors.apply(authorId);
+        if (author == null) {
+            log.warn("Author not found: {}", authorId);
+            throw new EntityNotFoundException("Author not found: " + authorId);
+        }
+
+        Book book = new Book();
+        book.setAuthor(author);
+        book.setTitle(dto.title());
+        book.setIsbn(dto.isbn());
+        book.setPublishDate(dto.publishDate());
+
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .collect(Collectors.joining("; ")));
+        }
+        return book;
+    }
+
+    /**
+     * Reject books whose ISBN already occurred earlier in the chunk.
+     */
+    private List<Book> rejectRepeatedIsbns(List<Book> books, ImportTally tally) {
+        LongHashSet seen = new LongHashSet(books.size());
+        List<Book> unique = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (seen.add(isbnKey(book.getIsbn()))) {
+                unique.add(book);
+            } else {
+                tally.fail(book.getTitle(), "Duplicate ISBN in file: " + book.getIsbn());
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Reject books whose ISBN is already stored, looked up with one query for the whole chunk.
+     */
+    private List<Book> rejectExistingIsbns(List<Book> books, ImportTally tally) {
+        Set<String> existing = bookJdbcRepository.findExistingIsbns(books.stream().map(Book::getIsbn).toList());
+        if (existing.isEmpty()) {
+            return books;
+        }
+        List<Book> fresh = new ArrayList<>(books.size());
+        for (Book book : books) {
+            if (existing.contains(book.getIsbn())) {
+                tally.fail(book.getTitle(), "ISBN already exists: " + book.getIsbn());
+            } else {
+                fresh.add(book);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Numeric key of a validated 10 or 13 digit ISBN. 10 digit ISBNs are moved past the 13 digit range,
+     * so ISBNs differing only in length and leading zeros get different keys.
+     */
+    private static long isbnKey(String isbn) {
+        long value = Long.parseLong(isbn);
+        return isbn.length() == 10 ? value + 10_000_000_000_000L : value;
+    }
+
+    private void copyChunk(List<Book> books, ImportTally tally) {
+        SortedMap<Integer, String> rejected = bookCopyRepository.copyAll(books);
+        tally.imported += books.size() - rejected.size();
+        rejected.forEach((index, reason) -> tally.fail(books.get(index).getTitle(), reason));
+    }
+
+    private void insertBatch(List<Book> batch, ImportTally tally) {
+        try {
+            savepointTemplate.executeWithoutResult(status -> bookJdbcRepository.insertAll(batch));
+            tally.imported += batch.size();
+        } catch (DataAccessException batchFailure) {
+            log.warn("Batch of {} books failed, retrying row by row: {}", batch.size(), batchFailure.getMostSpecificCause().getMessage());
+            for (Book book : batch) {
+                try {
+                    savepointTemplate.executeWithoutResult(status -> bookJdbcRepository.insert(book));
+                    tally.imported++;
+                } catch (DataAccessException e) {
+                    tally.fail(book.getTitle(), e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void upsertBatch(List<Book> batch, ImportTally tally) {
+        try {
+            tally.add(savepointTemplate.execute(status -> bookJdbcRepository.upsertAll(batch)));
+        } catch (DataAccessException batchFailure) {
+            log.warn("Batch of {} books failed, retrying row by row: {}", batch.size(), batchFailure.getMostSpecificCause().getMessage());
+            for (Book book : batch) {
+                try {
+                    tally.add(savepointTemplate.execute(status -> bookJdbcRepository.upsertAll(List.of(book))));
+                } catch (DataAccessException e) {
+                    tally.fail(book.getTitle(), e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Running counters of a single upload or chunk. Only the first {@code maxErrors} messages are kept.
+     * <p>
+     * A chunk tally is owned by one worker; the upload tally is shared and only changed through
+     * the {@link #add} and {@link #error} methods holding its lock. The lock is a {@link ReentrantLock}
+     * rather than a monitor, as the progress callback writes to the database while it is held
+     * and a virtual thread blocked inside {@code synchronized} would pin its carrier.
+     */
+    private static final class ImportTally {
+        private final int maxErrors;
+        private final List<String> errors = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private int imported;
+        private int updated;
+        private int unchanged;
+        private int failed;
+
+        private ImportTally(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private static ImportTally failedChunk(int maxErrors, int size, Exception e) {
+            ImportTally tally = new ImportTally(maxErrors);
+            tally.failed = size;
+            tally.error("Chunk of " + size + " books failed: " + e.getMessage());
+            return tally;
+        }
+
+        private void fail(String title, String reason) {
+            failed++;
+            error("Failed to import book '" + title + "': " + reason);
+            log.warn("Failed to import book '{}': {}", title, reason);
+        }
+
+        private void error(String message) {
+            lock.lock();
+            try {
+                if (errors.size() < maxErrors) {
+                    errors.add(message);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void add(BookJdbcRepository.UpsertResult result) {
+            imported += result.inserted();
+            updated += result.updated();
+            unchanged += result.unchanged();
+        }
+
+        /**
+         * Add a finished chunk and publish the running result while still holding the lock,
+         * so concurrent workers publish their snapshots in order and progress never goes backwards.
+         */
+        private void add(ImportTally chunk, Consumer<UploadResultDto> progress) {
+            lock.lock();
+            try {
+                imported += chunk.imported;
+                updated += chunk.updated;
+                unchanged += chunk.unchanged;
+                failed += chunk.failed;
+                chunk.errors.forEach(this::error);
+                progress.accept(toDto());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private UploadResultDto toDto() {
+            lock.lock();
+            try {
+                return new UploadResultDto(imported, updated, unchanged, failed, List.copyOf(errors));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
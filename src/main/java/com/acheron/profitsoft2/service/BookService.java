@@ -2,29 +2,34 @@ package com.acheron.profitsoft2.service;
 
 import com.acheron.profitsoft2.dto.request.*;
 import com.acheron.profitsoft2.dto.response.BookDto;
-import com.acheron.profitsoft2.dto.response.UploadResultDto;
-import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.dto.response.BookVersion;
+import com.acheron.profitsoft2.dto.response.BookView;
 import com.acheron.profitsoft2.entity.Book;
 import com.acheron.profitsoft2.exception.EntityNotFoundException;
+import com.acheron.profitsoft2.exception.PreconditionFailedException;
 import com.acheron.profitsoft2.mapper.BookMapper;
-import com.acheron.profitsoft2.repository.AuthorRepository;
+import com.acheron.profitsoft2.metrics.BookMetrics;
 import com.acheron.profitsoft2.repository.BookRepository;
+import com.acheron.profitsoft2.specification.BookSpecification;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.ObjectMapper;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
 
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Service for handling Book entity operations with logging.
@@ -33,15 +38,27 @@ import java.util.UUID;
 public class BookService extends EntityService<Book, UUID> {
 
     private static final Logger log = LoggerFactory.getLogger(BookService.class);
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final Sort KEYSET_SORT = Sort.by("publishDate", "id");
 
     private final BookMapper bookMapper;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final AuthorRepository authorRepository;
-
-    public BookService(BookRepository bookRepository, BookMapper bookMapper, AuthorRepository authorRepository) {
+    private final BookCountCache bookCountCache;
+    private final BookMetrics bookMetrics;
+    private final NdjsonWriter ndjsonWriter;
+    private final BookCsvWriter bookCsvWriter;
+    private final BookColumnarWriter bookColumnarWriter;
+
+    public BookService(BookRepository bookRepository, BookMapper bookMapper, BookCountCache bookCountCache,
+                       BookMetrics bookMetrics, NdjsonWriter ndjsonWriter, BookCsvWriter bookCsvWriter,
+                       BookColumnarWriter bookColumnarWriter) {
         super(bookRepository);
         this.bookMapper = bookMapper;
-        this.authorRepository = authorRepository;
+        this.bookCountCache = bookCountCache;
+        this.bookMetrics = bookMetrics;
+        this.ndjsonWriter = ndjsonWriter;
+        this.bookCsvWriter = bookCsvWriter;
+        this.bookColumnarWriter = bookColumnarWriter;
     }
 
     /**
@@ -51,32 +68,56 @@ public class BookService extends EntityService<Book, UUID> {
         log.info("Saving new book: {}", dto.title());
         Book book = bookMapper.map(dto);
         Book saved = save(book);
+        bookCountCache.clear();
         log.info("Saved book with ID: {}", saved.getId());
         return ResponseEntity.ok(bookMapper.map(saved));
     }
 
     /**
-     * Find book by ID.
+     * Find book by ID, tagged with its current version.
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<BookDto> findById(UUID id) {
         log.info("Finding book with ID: {}", id);
         Book book = findEntityById(id);
-        return ResponseEntity.ok(bookMapper.map(book));
+        return ResponseEntity.ok()
+                .eTag(BookVersion.of(book).etag())
+                .body(bookMetrics.timeMapping("find", () -> bookMapper.map(book)));
+    }
+
+    /**
+     * Find the entity tag of a book without loading the book.
+     */
+    public String findEtag(UUID id) {
+        BookRepository bookRepository = (BookRepository) repository;
+        return bookRepository.findVersionById(id)
+                .map(BookVersion::etag)
+                .orElseThrow(() -> new EntityNotFoundException("Book not found: " + id));
     }
 
     /**
      * Update book by ID.
+     *
+     * @param etag entity tag the client expects the book to have, or null to update unconditionally
+     * @throws PreconditionFailedException if the book no longer has the expected entity tag
      */
-    public ResponseEntity<BookDto> update(UUID id, @Valid BookUpdateDto dto) {
+    public ResponseEntity<BookDto> update(UUID id, @Valid BookUpdateDto dto, String etag) {
         log.info("Updating book with ID: {}", id);
         Book book = findEntityById(id);
+        if (etag != null && !etag.equals(BookVersion.of(book).etag())) {
+            log.warn("Book {} was modified, expected version {}", id, etag);
+            throw new PreconditionFailedException("Book was modified: " + id);
+        }
 
         if (dto.title() != null && !dto.title().isBlank()) book.setTitle(dto.title());
         if (dto.isbn() != null && !dto.isbn().isBlank()) book.setIsbn(dto.isbn());
 
         Book saved = save(book);
+        bookCountCache.clear();
         log.info("Updated book with ID: {}", id);
-        return ResponseEntity.ok(bookMapper.map(saved));
+        return ResponseEntity.ok()
+                .eTag(BookVersion.of(saved).etag())
+                .body(bookMapper.map(saved));
     }
 
     /**
@@ -85,99 +126,123 @@ public class BookService extends EntityService<Book, UUID> {
     public void delete(UUID id) {
         log.info("Deleting book with ID: {}", id);
         deleteById(id);
+        bookCountCache.clear();
         log.info("Deleted book with ID: {}", id);
     }
 
     /**
      * Find books with filtering and pagination.
      */
+    @Transactional(readOnly = true)
     public FilteredBooksResponse findAll(ListBookRequest request) {
+        if (request.pagination() == ListBookRequest.Pagination.KEYSET) {
+            return findAllAfterCursor(request);
+        }
+
         log.info("Fetching books with filters: page={}, size={}", request.page(), request.size());
+        Instant watermark = watermark(request);
         PageRequest pageable = PageRequest.of(request.page() != null ? request.page() : 0,
                 request.size() != null ? request.size() : 10);
 
         Specification<Book> spec = request.toSpecification();
         BookRepository bookRepository = (BookRepository) repository;
 
-        Page<Book> page = bookRepository.findAll(spec, pageable);
-        List<BookDto> dtos = page.getContent().stream().map(bookMapper::map).toList();
+        Slice<BookView> slice = bookRepository.findSlice(spec, pageable);
+        List<BookDto> dtos = bookMetrics.timeMapping("list",
+                () -> slice.getContent().stream().map(bookMapper::map).toList());
+
+        Integer totalPages = null;
+        if (!Boolean.TRUE.equals(request.skipCount())) {
+            long total = bookCountCache.count(request.filterKey(), () -> bookRepository.count(spec));
+            totalPages = (int) ((total + pageable.getPageSize() - 1) / pageable.getPageSize());
+        }
 
-        log.info("Fetched {} books (total pages: {})", dtos.size(), page.getTotalPages());
-        return new FilteredBooksResponse(dtos, page.getTotalPages());
+        log.info("Fetched {} books (total pages: {})", dtos.size(), totalPages);
+        return new FilteredBooksResponse(dtos, totalPages, slice.hasNext(), null, watermark);
     }
 
     /**
-     * Export filtered books as CSV.
+     * Find books after the request cursor ordered by publish date, without counting the total.
      */
-    public byte[] exportAll(ListBookRequest request) {
-        log.info("Exporting books to CSV");
+    private FilteredBooksResponse findAllAfterCursor(ListBookRequest request) {
+        log.info("Fetching books with filters after cursor, size={}", request.size());
+        int size = request.size() != null ? request.size() : 10;
+        Instant watermark = watermark(request);
+
         Specification<Book> spec = request.toSpecification();
+        if (request.cursor() != null && !request.cursor().isBlank()) {
+            BookCursor cursor = BookCursor.decode(request.cursor());
+            spec = spec.and(BookSpecification.after(cursor.publishDate(), cursor.id()));
+        }
         BookRepository bookRepository = (BookRepository) repository;
 
-        List<BookDto> dtos = bookRepository.findAll(spec)
-                .stream()
-                .map(bookMapper::map)
-                .toList();
+        List<BookView> books = bookRepository.findLimited(spec, KEYSET_SORT, size + 1);
+        boolean hasNext = books.size() > size;
+        List<BookView> page = hasNext ? books.subList(0, size) : books;
+        List<BookDto> dtos = bookMetrics.timeMapping("list", () -> page.stream().map(bookMapper::map).toList());
+        String nextCursor = hasNext ? BookCursor.of(page.getLast()).encode() : null;
 
-        log.info("Exported {} books", dtos.size());
-        return exportCsv(dtos);
+        log.info("Fetched {} books (has next: {})", dtos.size(), hasNext);
+        return new FilteredBooksResponse(dtos, null, hasNext, nextCursor, watermark);
     }
 
-    private byte[] exportCsv(List<BookDto> books) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("title,isbn,publish_date,author_first_name,author_last_name\n");
+    /**
+     * Watermark to resume a delta export from, taken before any book is read.
+     *
+     * @see BookRepository#deltaWatermark()
+     */
+    @Transactional(readOnly = true)
+    public Instant currentWatermark() {
+        return ((BookRepository) repository).deltaWatermark();
+    }
 
-        for (BookDto b : books) {
-            sb.append(b.title()).append(",")
-                    .append(b.isbn()).append(",")
-                    .append(b.publishDate()).append(",")
-                    .append(b.author().firstName()).append(",")
-                    .append(b.author().lastName()).append("\n");
-        }
+    private Instant watermark(ListBookRequest request) {
+        return request.changedSince() != null ? ((BookRepository) repository).deltaWatermark() : null;
+    }
+
+    /**
+     * Export filtered books in the given format, writing rows to the output stream as they are read from the database.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(ListBookRequest request, ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting books as {}", format);
+        Specification<Book> spec = request.toSpecification();
+        BookRepository bookRepository = (BookRepository) repository;
 
-        return sb.toString().getBytes(StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        try (Stream<BookDto> books = bookRepository.streamAll(spec, EXPORT_FETCH_SIZE).map(bookMapper::map)) {
+            long rows = export(books, format, out);
+            bookMetrics.recordExport(rows, System.nanoTime() - start);
+            log.info("Exported {} books", rows);
+        }
     }
 
     /**
-     * Upload books from JSON file.
+     * Write filtered books as newline-delimited JSON, one book per line as it is read from the database.
+     * Paging fields of the request are ignored.
      */
-    public UploadResultDto uploadBooks(MultipartFile file) {
-        log.info("Uploading books from file: {}", file.getOriginalFilename());
-        List<String> errors = new ArrayList<>();
-        int imported = 0;
-
-        try {
-            List<UploadBookDto> books = objectMapper.readValue(file.getBytes(), new TypeReference<>() {
-            });
-            for (UploadBookDto dto : books) {
-                try {
-                    UUID authorId = UUID.fromString(dto.authorId());
-                    Author author = authorRepository.findById(authorId)
-                            .orElseThrow(() -> {
-                                log.warn("Author not found: {}", authorId);
-                                return new EntityNotFoundException("Author not found: " + authorId);
-                            });
-
-                    Book book = new Book();
-                    book.setAuthor(author);
-                    book.setTitle(dto.title());
-                    book.setIsbn(dto.isbn());
-                    book.setPublishDate(dto.publishDate());
-
-                    save(book);
-                    imported++;
-                    log.info("Imported book: {}", dto.title());
-                } catch (Exception e) {
-                    errors.add("Failed to import book '" + dto.title() + "': " + e.getMessage());
-                    log.warn("Failed to import book '{}': {}", dto.title(), e.getMessage());
-                }
-            }
-        } catch (Exception e) {
-            log.error("Invalid JSON file: {}", e.getMessage());
-            return new UploadResultDto(0, 0, List.of("Invalid JSON file: " + e.getMessage()));
+    @Transactional(readOnly = true)
+    public void streamAll(ListBookRequest request, OutputStream out) {
+        log.info("Streaming books as NDJSON");
+        Specification<Book> spec = request.toSpecification();
+        BookRepository bookRepository = (BookRepository) repository;
+
+        try (Stream<BookDto> books = bookRepository.streamAll(spec, EXPORT_FETCH_SIZE).map(bookMapper::map)) {
+            long rows = ndjsonWriter.write(books, out);
+            log.info("Streamed {} books", rows);
         }
+    }
 
-        log.info("Imported {} books, {} errors", imported, errors.size());
-        return new UploadResultDto(imported, errors.size(), errors);
+    long export(Stream<BookDto> books, ExportFormat format, OutputStream out) throws IOException {
+        return switch (format) {
+            case CSV -> bookCsvWriter.write(books, out);
+            case CSV_GZIP -> {
+                // closing finishes the gzip stream and releases its native deflater, but leaves the response open
+                try (GZIPOutputStream gzip = new GZIPOutputStream(StreamUtils.nonClosing(out), GZIP_BUFFER_SIZE)) {
+                    yield bookCsvWriter.write(books, gzip);
+                }
+            }
+            case COLUMNAR -> bookColumnarWriter.write(books, out);
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.config.ChangeFeedProperties;
+import com.acheron.profitsoft2.dto.response.ChangeBatchDto;
+import com.acheron.profitsoft2.dto.response.ChangeDto;
+import com.acheron.profitsoft2.repository.ChangeLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Service delivering the change feed of books and authors with long polling.
+ * <p>
+ * A poll returns as soon as there are changes after the given sequence number, or an empty batch once
+ * {@link ChangeFeedProperties#maxWait()} has passed. Waiting polls run on virtual threads, so they do not hold
+ * platform threads or database connections while sleeping.
+ * <p>
+ * Sequence numbers are assigned in plain JDBC transactions rather than JPA ones: with open-in-view the request's
+ * entity manager would keep the connection of a JPA transaction until the poll returns.
+ */
+@Service
+public class ChangeFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedService.class);
+
+    private final ChangeLogRepository changeLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeFeedProperties properties;
+
+    @Autowired
+    public ChangeFeedService(ChangeLogRepository changeLogRepository,
+                             DataSource dataSource,
+                             ChangeFeedProperties properties) {
+        this(changeLogRepository, new TransactionTemplate(new DataSourceTransactionManager(dataSource)), properties);
+    }
+
+    ChangeFeedService(ChangeLogRepository changeLogRepository,
+                      TransactionTemplate transactionTemplate,
+                      ChangeFeedProperties properties) {
+        this.changeLogRepository = changeLogRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Wait for changes after the given sequence number.
+     *
+     * @param after last sequence number the caller has seen, 0 to start from the beginning
+     * @param limit maximum number of changes to return, at most {@link ChangeFeedProperties#batchSize()}
+     */
+    public ChangeBatchDto poll(long after, int limit) {
+        if (after < 0) {
+            throw new IllegalArgumentException("after must not be negative");
+        }
+        if (limit < 1 || limit > properties.batchSize()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + properties.batchSize());
+        }
+
+        long deadline = System.nanoTime() + properties.maxWait().toNanos();
+        while (true) {
+            transactionTemplate.executeWithoutResult(status -> changeLogRepository.assignSequence());
+            List<ChangeDto> changes = changeLogRepository.findAfter(after, limit);
+            if (!changes.isEmpty()) {
+                log.debug("Delivering {} changes after {}", changes.size(), after);
+                return new ChangeBatchDto(changes, changes.getLast().seq());
+            }
+            if (System.nanoTime() >= deadline || !sleep()) {
+                return new ChangeBatchDto(List.of(), after);
+            }
+        }
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(properties.pollInterval());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
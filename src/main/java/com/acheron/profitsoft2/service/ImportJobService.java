@@ -0,0 +1,199 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.config.ImportProperties;
+import com.acheron.profitsoft2.dto.request.ImportMode;
+import com.acheron.profitsoft2.dto.response.ImportJobDto;
+import com.acheron.profitsoft2.dto.response.UploadResultDto;
+import com.acheron.profitsoft2.entity.ImportJob;
+import com.acheron.profitsoft2.exception.EntityNotFoundException;
+import com.acheron.profitsoft2.repository.ImportJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service running book imports in the background.
+ * <p>
+ * The upload is copied to a temporary file and imported by a bounded pool of virtual threads,
+ * so the request returns right away and concurrent imports cannot exhaust the connection pool.
+ * Job state is kept in the {@code import_job} table, shared by all instances. Each instance owns the jobs it queued
+ * and renews their heartbeat while they are unfinished; a job whose heartbeat is older than the lease belongs
+ * to an instance that stopped, and as its uploaded file is gone it is marked as interrupted by any instance.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+    private static final List<ImportJob.Status> UNFINISHED = List.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING);
+
+    private final ImportJobRepository importJobRepository;
+    private final BookImportService bookImportService;
+    private final TaskExecutor executor;
+    private final Duration jobLease;
+    private final UUID instanceId = UUID.randomUUID();
+
+    @Autowired
+    public ImportJobService(ImportJobRepository importJobRepository,
+                            BookImportService bookImportService,
+                            ImportProperties properties) {
+        this(importJobRepository, bookImportService, createExecutor(properties), properties.jobLease());
+    }
+
+    ImportJobService(ImportJobRepository importJobRepository, BookImportService bookImportService,
+                     TaskExecutor executor, Duration jobLease) {
+        this.importJobRepository = importJobRepository;
+        this.bookImportService = bookImportService;
+        this.executor = executor;
+        this.jobLease = jobLease;
+    }
+
+    /**
+     * Store the uploaded file and queue its import.
+     *
+     * @throws TaskRejectedException if too many imports are already queued
+     */
+    public ImportJobDto submit(MultipartFile file, ImportMode mode) throws IOException {
+        Path path = Files.createTempFile("book-import-", ".json");
+        try {
+            file.transferTo(path);
+
+            ImportJob job = new ImportJob();
+            job.setFilename(file.getOriginalFilename());
+            job.setStatus(ImportJob.Status.QUEUED);
+            job.setCreatedAt(Instant.now());
+            job.setOwner(instanceId);
+            job.setHeartbeatAt(job.getCreatedAt());
+            ImportJob saved = importJobRepository.save(job);
+
+            try {
+                executor.execute(() -> run(saved.getId(), path, mode));
+            } catch (TaskRejectedException e) {
+                importJobRepository.delete(saved);
+                throw e;
+            }
+            log.info("Queued import job {} for file {}", saved.getId(), saved.getFilename());
+            return toDto(saved);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the state of an import job.
+     */
+    public ImportJobDto find(UUID id) {
+        return importJobRepository.findById(id)
+                .map(this::toDto)
+                .orElseThrow(() -> new EntityNotFoundException("Import job not found: " + id));
+    }
+
+    /**
+     * Renew the lease of the unfinished jobs queued on this instance.
+     */
+    @Scheduled(fixedDelayString = "${book.import.job-heartbeat:30s}")
+    public void heartbeat() {
+        importJobRepository.heartbeat(instanceId, UNFINISHED, Instant.now());
+    }
+
+    /**
+     * Mark unfinished jobs whose lease expired, on any instance, as interrupted.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${book.import.job-lease:2m}", initialDelayString = "${book.import.job-lease:2m}")
+    public void markInterruptedJobs() {
+        Instant now = Instant.now();
+        int interrupted = importJobRepository.markStale(UNFINISHED, now.minus(jobLease), ImportJob.Status.INTERRUPTED, now);
+        if (interrupted > 0) {
+            log.warn("Marked {} import jobs without a heartbeat since {} as interrupted", interrupted, now.minus(jobLease));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+    }
+
+    private void run(UUID id, Path path, ImportMode mode) {
+        ImportJob job = importJobRepository.findById(id).orElseThrow();
+        job.setStatus(ImportJob.Status.RUNNING);
+        job.setStartedAt(Instant.now());
+        importJobRepository.save(job);
+        log.info("Started import job {}", id);
+
+        try {
+            UploadResultDto result = bookImportService.importBooks(new FileSystemResource(path), mode,
+                    progress -> importJobRepository.updateProgress(id, progress.imported(), progress.updated(),
+                            progress.unchanged(), progress.failed()));
+            job.setImported(result.imported());
+            job.setUpdated(result.updated());
+            job.setUnchanged(result.unchanged());
+            job.setFailed(result.failed());
+            job.setErrors(result.errors());
+            job.setStatus(ImportJob.Status.COMPLETED);
+        } catch (RuntimeException e) {
+            log.error("Import job {} failed", id, e);
+            job.setErrors(List.of(String.valueOf(e.getMessage())));
+            job.setStatus(ImportJob.Status.FAILED);
+        } finally {
+            job.setFinishedAt(Instant.now());
+            importJobRepository.save(job);
+            deleteQuietly(path);
+        }
+        log.info("Finished import job {}: {}", id, job.getStatus());
+    }
+
+    private ImportJobDto toDto(ImportJob job) {
+        int processed = job.getImported() + job.getUpdated() + job.getUnchanged() + job.getFailed();
+        double rowsPerSecond = 0;
+        if (job.getStartedAt() != null) {
+            Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+            long millis = Duration.between(job.getStartedAt(), end).toMillis();
+            rowsPerSecond = millis > 0 ? processed * 1000.0 / millis : 0;
+        }
+        UploadResultDto result = job.getStatus() == ImportJob.Status.COMPLETED || job.getStatus() == ImportJob.Status.FAILED
+                ? new UploadResultDto(job.getImported(), job.getUpdated(), job.getUnchanged(), job.getFailed(),
+                job.getErrors() != null ? job.getErrors() : List.of())
+                : null;
+        return new ImportJobDto(job.getId(), job.getFilename(), job.getStatus(), processed, rowsPerSecond,
+                job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt(), result);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary import file {}", path, e);
+        }
+    }
+
+    private static ThreadPoolTaskExecutor createExecutor(ImportProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.jobWorkers());
+        executor.setMaxPoolSize(properties.jobWorkers());
+        executor.setQueueCapacity(properties.jobQueueCapacity());
+        executor.setThreadFactory(Thread.ofVirtual().name("book-import-", 0).factory());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,70 @@
+package com.acheron.profitsoft2.service;
+
+/**
+ * Minimal open-addressing hash set of primitive longs, without boxing every element into a {@link Long}.
+ * Not thread-safe.
+ */
+final class LongHashSet {
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return true if the value was not in the set yet
+     */
+    boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int i = index(value);
+        while (keys[i] != 0) {
+            if (keys[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int index(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        mask = keys.length - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int i = index(value);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.acheron.profitsoft2.service;
+
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows as newline-delimited JSON straight to an output stream, one object per line.
+ * <p>
+ * Rows are serialized as they are pulled from the stream, so memory use does not depend on the number of rows.
+ * The first row is flushed right away and then every {@value #FLUSH_EVERY} rows, so clients can start early.
+ */
+@Component
+public class NdjsonWriter {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final ObjectWriter writer;
+
+    public NdjsonWriter(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+    }
+
+    /**
+     * @return number of written rows
+     */
+    public long write(Stream<?> rows, OutputStream out) {
+        JsonGenerator generator = writer.createGenerator(out);
+        long count = 0;
+        for (Object row : (Iterable<?>) rows::iterator) {
+            writer.writeValue(generator, row);
+            generator.writeRaw('\n');
+            if (++count % FLUSH_EVERY == 1) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+        return count;
+    }
+}
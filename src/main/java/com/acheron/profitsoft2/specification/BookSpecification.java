@@ -1,6 +1,9 @@
 package com.acheron.profitsoft2.specification;
 
+import com.acheron.profitsoft2.entity.Author;
 import com.acheron.profitsoft2.entity.Book;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.experimental.UtilityClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,13 +53,53 @@ public class BookSpecification {
         return (root, query, cb) -> cb.equal(root.get("author").get("id"), authorId);
     }
 
+    /**
+     * Case-insensitive substring match on the title, served by the pg_trgm GIN index on lower(title).
+     * Matches are ranked by trigram similarity to the query unless the caller sorts explicitly.
+     */
     public Specification<Book> titleContains(String queryStr) {
         log.info("Creating specification: titleContains '{}'", queryStr);
-        return (root, query, cb) -> cb.like(cb.lower(root.get("title")), "%" + queryStr.toLowerCase() + "%");
+        return (root, query, cb) -> {
+            if (query != null && !Long.class.equals(query.getResultType())) {
+                query.orderBy(
+                        cb.desc(cb.function("similarity", Double.class, root.get("title"), cb.literal(queryStr))),
+                        cb.asc(root.get("id"))
+                );
+            }
+            return cb.like(cb.lower(root.get("title")), "%" + queryStr.toLowerCase() + "%");
+        };
     }
 
     public Specification<Book> hasIsbn(String isbn) {
         log.info("Creating specification: hasIsbn '{}'", isbn);
         return (root, query, cb) -> cb.equal(root.get("isbn"), isbn);
     }
+
+    /**
+     * Books changed at or after the given time, including books whose author changed, as the author's name is part
+     * of a book. Deleted books are not part of it. Both sides are served by the indexes on updated_at.
+     */
+    public Specification<Book> changedSince(Instant since) {
+        log.info("Creating specification: changedSince {}", since);
+        return (root, query, cb) -> {
+            Subquery<UUID> changedAuthors = query.subquery(UUID.class);
+            Root<Author> author = changedAuthors.from(Author.class);
+            changedAuthors.select(author.get("id")).where(cb.greaterThanOrEqualTo(author.get("updatedAt"), since));
+            return cb.or(
+                    cb.greaterThanOrEqualTo(root.get("updatedAt"), since),
+                    root.get("author").get("id").in(changedAuthors)
+            );
+        };
+    }
+
+    public Specification<Book> after(Instant publishDate, UUID id) {
+        log.info("Creating specification: after publishDate={}, id={}", publishDate, id);
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("publishDate"), publishDate),
+                cb.and(
+                        cb.equal(root.get("publishDate"), publishDate),
+                        cb.greaterThan(root.get("id"), id)
+                )
+        );
+    }
 }
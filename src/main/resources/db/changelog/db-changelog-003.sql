@@ -0,0 +1,5 @@
+-- --liquibase formatted sql
+
+--changeset artem:1
+CREATE INDEX IF NOT EXISTS idx_book_publish_date_id
+    ON book (publish_date, id);
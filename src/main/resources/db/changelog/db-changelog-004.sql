@@ -0,0 +1,8 @@
+-- --liquibase formatted sql
+
+--changeset artem:1
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+--changeset artem:2
+CREATE INDEX IF NOT EXISTS idx_book_title_trgm
+    ON book USING gin (lower(title) gin_trgm_ops);
@@ -0,0 +1,15 @@
+-- --liquibase formatted sql
+
+--changeset artem:1
+CREATE TABLE IF NOT EXISTS import_job
+(
+    id          uuid primary key     default gen_random_uuid(),
+    filename    varchar(255),
+    status      varchar(20) not null,
+    imported    integer     not null default 0,
+    failed      integer     not null default 0,
+    errors      text[],
+    created_at  timestamp   not null default now(),
+    started_at  timestamp,
+    finished_at timestamp
+);
@@ -0,0 +1,8 @@
+-- --liquibase formatted sql
+
+--changeset artem:1
+ALTER TABLE book
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE author
+    ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
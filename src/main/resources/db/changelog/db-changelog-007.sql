@@ -0,0 +1,5 @@
+-- --liquibase formatted sql
+
+--changeset artem:1
+CREATE INDEX IF NOT EXISTS idx_author_last_name_prefix
+    ON author ((lower(last_name) COLLATE "C"), id);
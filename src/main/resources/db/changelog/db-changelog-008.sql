@@ -0,0 +1,12 @@
+-- --liquibase formatted sql
+
+--changeset artem:1
+ALTER TABLE book
+    ADD COLUMN IF NOT EXISTS content_hash uuid GENERATED ALWAYS AS (
+        md5(title || '|' || author_id::text || '|' || extract(epoch FROM publish_date)::text)::uuid
+        ) STORED;
+
+--changeset artem:2
+ALTER TABLE import_job
+    ADD COLUMN IF NOT EXISTS updated   integer NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS unchanged integer NOT NULL DEFAULT 0;
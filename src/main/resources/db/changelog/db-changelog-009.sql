@@ -0,0 +1,39 @@
+-- --liquibase formatted sql
+
+--changeset artem:1
+ALTER TABLE book
+    ADD COLUMN IF NOT EXISTS created_at timestamptz NOT NULL DEFAULT now(),
+    ADD COLUMN IF NOT EXISTS updated_at timestamptz NOT NULL DEFAULT now();
+
+ALTER TABLE author
+    ADD COLUMN IF NOT EXISTS created_at timestamptz NOT NULL DEFAULT now(),
+    ADD COLUMN IF NOT EXISTS updated_at timestamptz NOT NULL DEFAULT now();
+
+--changeset artem:2 splitStatements:false
+CREATE OR REPLACE FUNCTION set_updated_at() RETURNS trigger AS
+$$
+BEGIN
+    NEW.updated_at = now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset artem:3
+CREATE TRIGGER book_set_updated_at
+    BEFORE UPDATE ON book
+    FOR EACH ROW
+    WHEN (OLD.* IS DISTINCT FROM NEW.*)
+EXECUTE FUNCTION set_updated_at();
+
+CREATE TRIGGER author_set_updated_at
+    BEFORE UPDATE ON author
+    FOR EACH ROW
+    WHEN (OLD.* IS DISTINCT FROM NEW.*)
+EXECUTE FUNCTION set_updated_at();
+
+--changeset artem:4
+CREATE INDEX IF NOT EXISTS idx_book_updated_at
+    ON book (updated_at);
+
+CREATE INDEX IF NOT EXISTS idx_author_updated_at
+    ON author (updated_at);
@@ -0,0 +1,69 @@
+-- --liquibase formatted sql
+
+--changeset artem:1
+CREATE SEQUENCE IF NOT EXISTS change_log_seq;
+
+CREATE TABLE IF NOT EXISTS change_log
+(
+    id         bigserial primary key,
+    seq        bigint unique,
+    entity     varchar(20) not null,
+    entity_id  uuid        not null,
+    operation  varchar(10) not null,
+    changed_at timestamptz not null default now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_change_log_unsequenced
+    ON change_log (id) WHERE seq IS NULL;
+
+--changeset artem:2 splitStatements:false
+CREATE OR REPLACE FUNCTION log_changes() RETURNS trigger AS
+$$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO change_log (entity, entity_id, operation)
+        SELECT TG_TABLE_NAME, id, TG_OP FROM old_rows;
+    ELSE
+        INSERT INTO change_log (entity, entity_id, operation)
+        SELECT TG_TABLE_NAME, id, TG_OP FROM new_rows;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset artem:3
+CREATE TRIGGER book_log_insert
+    AFTER INSERT ON book
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION log_changes();
+
+CREATE TRIGGER book_log_update
+    AFTER UPDATE ON book
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION log_changes();
+
+CREATE TRIGGER book_log_delete
+    AFTER DELETE ON book
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION log_changes();
+
+CREATE TRIGGER author_log_insert
+    AFTER INSERT ON author
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION log_changes();
+
+CREATE TRIGGER author_log_update
+    AFTER UPDATE ON author
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION log_changes();
+
+CREATE TRIGGER author_log_delete
+    AFTER DELETE ON author
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION log_changes();
@@ -0,0 +1,10 @@
+-- --liquibase formatted sql
+
+--changeset artem:1
+ALTER TABLE import_job
+    ADD COLUMN IF NOT EXISTS owner        uuid,
+    ADD COLUMN IF NOT EXISTS heartbeat_at timestamp;
+
+CREATE INDEX IF NOT EXISTS idx_import_job_unfinished
+    ON import_job (owner)
+    WHERE status IN ('QUEUED', 'RUNNING');
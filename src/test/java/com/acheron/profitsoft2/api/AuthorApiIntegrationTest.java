@@ -3,6 +3,7 @@ package com.acheron.profitsoft2.api;
 import com.acheron.profitsoft2.dto.request.AuthorSaveDto;
 import com.acheron.profitsoft2.dto.request.AuthorUpdateDto;
 import com.acheron.profitsoft2.dto.response.AuthorDto;
+import com.acheron.profitsoft2.dto.response.FilteredAuthorsResponse;
 import com.acheron.profitsoft2.service.AuthorService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -12,13 +13,15 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import tools.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.UUID;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AuthorApi.class)
 class AuthorApiIntegrationTest {
@@ -34,10 +37,44 @@ class AuthorApiIntegrationTest {
 
     @Test
     void getAuthors_shouldReturnOk() throws Exception {
-        Mockito.when(authorService.findAll()).thenReturn(List.of());
+        String after = "after-cursor";
+        String next = "next-cursor";
+        Mockito.when(authorService.findAll("Do", after, 1))
+                .thenReturn(new FilteredAuthorsResponse(List.of(new AuthorDto("John", "Doe")), true, next));
+
+        mockMvc.perform(get("/api/author")
+                        .param("lastName", "Do")
+                        .param("after", after)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.authors[0].lastName").value("Doe"))
+                .andExpect(jsonPath("$.nextCursor").value(next));
+    }
 
-        mockMvc.perform(get("/api/author"))
-                .andExpect(status().isOk());
+    @Test
+    void getAuthors_invalidSize_shouldReturnBadRequest() throws Exception {
+        Mockito.when(authorService.findAll(null, null, 0))
+                .thenThrow(new IllegalArgumentException("Page size must be between 1 and 1000"));
+
+        mockMvc.perform(get("/api/author").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamAuthors_shouldReturnNdjson() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("{\"firstName\":\"John\",\"lastName\":\"Doe\"}\n".getBytes());
+            return null;
+        }).when(authorService).streamAll(Mockito.isNull(), Mockito.any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/author/_stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"firstName\":\"John\",\"lastName\":\"Doe\"}\n"));
     }
 
     @Test
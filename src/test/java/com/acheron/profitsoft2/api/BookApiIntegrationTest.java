@@ -2,33 +2,47 @@ package com.acheron.profitsoft2.api;
 
 import com.acheron.profitsoft2.dto.request.BookSaveDto;
 import com.acheron.profitsoft2.dto.request.BookUpdateDto;
+import com.acheron.profitsoft2.dto.request.ExportFormat;
 import com.acheron.profitsoft2.dto.request.FilteredBooksResponse;
+import com.acheron.profitsoft2.dto.request.ImportMode;
 import com.acheron.profitsoft2.dto.request.ListBookRequest;
 import com.acheron.profitsoft2.dto.response.AuthorDto;
 import com.acheron.profitsoft2.dto.response.BookDto;
+import com.acheron.profitsoft2.dto.response.BulkItemResultDto;
+import com.acheron.profitsoft2.dto.response.BulkResultDto;
+import com.acheron.profitsoft2.dto.response.ImportJobDto;
 import com.acheron.profitsoft2.dto.response.UploadResultDto;
+import com.acheron.profitsoft2.service.BookBulkService;
+import com.acheron.profitsoft2.service.BookImportService;
+import com.acheron.profitsoft2.entity.ImportJob;
+import com.acheron.profitsoft2.exception.PreconditionFailedException;
 import com.acheron.profitsoft2.service.BookService;
+import com.acheron.profitsoft2.service.ImportJobService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import tools.jackson.databind.ObjectMapper;
 
+import java.io.OutputStream;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BookApi.class)
 class BookApiIntegrationTest {
@@ -39,6 +53,15 @@ class BookApiIntegrationTest {
     @MockitoBean
     private BookService bookService;
 
+    @MockitoBean
+    private BookImportService bookImportService;
+
+    @MockitoBean
+    private ImportJobService importJobService;
+
+    @MockitoBean
+    private BookBulkService bookBulkService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -85,14 +108,42 @@ class BookApiIntegrationTest {
         BookUpdateDto dto = new BookUpdateDto("Updated Title", "0987654321");
         BookDto responseDto = new BookDto(new AuthorDto("John", "Doe"), dto.title(), dto.isbn(), Instant.now());
 
-        when(bookService.update(eq(id), any(BookUpdateDto.class))).thenReturn(ResponseEntity.ok(responseDto));
+        when(bookService.update(eq(id), any(BookUpdateDto.class), any())).thenReturn(ResponseEntity.ok(responseDto));
 
         mockMvc.perform(put("/api/book/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(dto)))
                 .andExpect(status().isOk());
 
-        verify(bookService).update(eq(id), any(BookUpdateDto.class));
+        verify(bookService).update(eq(id), any(BookUpdateDto.class), isNull());
+    }
+
+    @Test
+    void updateBook_withIfMatch_shouldPassEtag() throws Exception {
+        UUID id = UUID.randomUUID();
+        BookUpdateDto dto = new BookUpdateDto("Updated Title", "0987654321");
+        when(bookService.update(eq(id), any(BookUpdateDto.class), any()))
+                .thenThrow(new PreconditionFailedException("Book was modified: " + id));
+
+        mockMvc.perform(put("/api/book/{id}", id)
+                        .header("If-Match", "\"1.0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(bookService).update(eq(id), any(BookUpdateDto.class), eq("1.0"));
+    }
+
+    @Test
+    void getBookById_matchingEtag_shouldReturnNotModified() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(bookService.findEtag(id)).thenReturn("3.1");
+
+        mockMvc.perform(get("/api/book/{id}", id).header("If-None-Match", "\"3.1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3.1\""));
+
+        verify(bookService, never()).findById(id);
     }
 
     @Test
@@ -114,9 +165,13 @@ class BookApiIntegrationTest {
                 "1234567890",
                 UUID.randomUUID().toString(),
                 0,
-                10
+                10,
+                null,
+                null,
+                null,
+                null
         );
-        FilteredBooksResponse response = new FilteredBooksResponse(List.of(), 1);
+        FilteredBooksResponse response = new FilteredBooksResponse(List.of(), 1, false, null, null);
 
         when(bookService.findAll(any(ListBookRequest.class))).thenReturn(response);
 
@@ -136,18 +191,88 @@ class BookApiIntegrationTest {
                 "1234567890",
                 UUID.randomUUID().toString(),
                 0,
-                10
+                10,
+                null,
+                null,
+                null,
+                null
         );
-        byte[] fileBytes = "title,isbn\nBook1,1234567890".getBytes();
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("title,isbn\nBook1,1234567890".getBytes());
+            return null;
+        }).when(bookService).exportAll(any(ListBookRequest.class), eq(ExportFormat.CSV), any(OutputStream.class));
 
-        when(bookService.exportAll(any(ListBookRequest.class))).thenReturn(fileBytes);
+        MvcResult result = mockMvc.perform(post("/api/book/_export")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("title,isbn\nBook1,1234567890"));
+
+        verify(bookService).exportAll(any(ListBookRequest.class), eq(ExportFormat.CSV), any(OutputStream.class));
+    }
+
+    @Test
+    void exportBooks_formatParameter_shouldSelectFormat() throws Exception {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, null, null, null, null, null);
 
         mockMvc.perform(post("/api/book/_export")
+                        .param("format", "COLUMNAR")
+                        .accept(MediaType.TEXT_PLAIN)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
-                .andExpect(status().isOk());
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", "application/x-book-columns"))
+                .andExpect(header().string("Content-Disposition", containsString(".bkc")));
+    }
+
+    @Test
+    void exportBooks_acceptHeader_shouldSelectFormat() throws Exception {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, null, null, null, null, null);
+
+        mockMvc.perform(post("/api/book/_export")
+                        .header("Accept", "text/csv;q=0.5, application/gzip")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition", containsString(".csv.gz")));
+    }
+
+    @Test
+    void exportBooks_changedSince_shouldSendNextWatermark() throws Exception {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, null, null, null, null,
+                Instant.parse("2025-06-01T11:00:00Z"));
+        when(bookService.currentWatermark()).thenReturn(Instant.parse("2025-06-01T12:00:00Z"));
+
+        mockMvc.perform(post("/api/book/_export")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Next-Watermark", "2025-06-01T12:00:00Z"));
+    }
+
+    @Test
+    void streamBooks_shouldReturnNdjson() throws Exception {
+        ListBookRequest request = new ListBookRequest("Some title", null, null, null, null, null, null, null, null, null);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("{\"title\":\"Book1\"}\n".getBytes());
+            return null;
+        }).when(bookService).streamAll(any(ListBookRequest.class), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(post("/api/book/_stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        verify(bookService).exportAll(any(ListBookRequest.class));
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"title\":\"Book1\"}\n"));
     }
 
     @Test
@@ -155,12 +280,85 @@ class BookApiIntegrationTest {
         String json = "[{\"authorId\":\"" + UUID.randomUUID() + "\",\"title\":\"Book1\",\"isbn\":\"1234567890\",\"publishDate\":\"2025-12-10T12:00:00Z\"}]";
         MockMultipartFile file = new MockMultipartFile("file", "books.json", "application/json", json.getBytes());
 
-        UploadResultDto result = new UploadResultDto(1, 0, List.of());
-        when(bookService.uploadBooks(any())).thenReturn(result);
+        UploadResultDto result = new UploadResultDto(1, 0, 0, 0, List.of());
+        when(bookImportService.uploadBooks(any(), any())).thenReturn(result);
 
         mockMvc.perform(multipart("/api/book/upload").file(file))
                 .andExpect(status().isOk());
 
-        verify(bookService).uploadBooks(any());
+        verify(bookImportService).uploadBooks(any(), eq(ImportMode.INSERT));
+    }
+
+    @Test
+    void uploadBooks_copyMode_shouldPassMode() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.json", "application/json", "[]".getBytes());
+        when(bookImportService.uploadBooks(any(), any())).thenReturn(new UploadResultDto(0, 0, 0, 0, List.of()));
+
+        mockMvc.perform(multipart("/api/book/upload").file(file).param("mode", "COPY"))
+                .andExpect(status().isOk());
+
+        verify(bookImportService).uploadBooks(any(), eq(ImportMode.COPY));
+    }
+
+    @Test
+    void submitUpload_shouldReturnAccepted() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.json", "application/json", "[]".getBytes());
+        UUID id = UUID.randomUUID();
+        ImportJobDto job = new ImportJobDto(id, "books.json", ImportJob.Status.QUEUED, 0, 0, Instant.now(), null, null, null);
+        when(importJobService.submit(any(), any())).thenReturn(job);
+
+        mockMvc.perform(multipart("/api/book/upload/jobs").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/book/upload/jobs/" + id))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void submitUpload_queueFull_shouldReturnServiceUnavailable() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.json", "application/json", "[]".getBytes());
+        when(importJobService.submit(any(), any())).thenThrow(new TaskRejectedException("queue full"));
+
+        mockMvc.perform(multipart("/api/book/upload/jobs").file(file))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void findUploadJob_shouldReturnOk() throws Exception {
+        UUID id = UUID.randomUUID();
+        ImportJobDto job = new ImportJobDto(id, "books.json", ImportJob.Status.COMPLETED, 1, 10, Instant.now(),
+                Instant.now(), Instant.now(), new UploadResultDto(1, 0, 0, 0, List.of()));
+        when(importJobService.find(id)).thenReturn(job);
+
+        mockMvc.perform(get("/api/book/upload/jobs/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.imported").value(1));
+    }
+
+    @Test
+    void saveAll_shouldReturnResultPerItem() throws Exception {
+        List<BookSaveDto> dtos = List.of(
+                new BookSaveDto(UUID.randomUUID().toString(), "Book One", "1234567890"),
+                new BookSaveDto(UUID.randomUUID().toString(), "Book Two", "12ab"));
+        when(bookBulkService.create(anyList())).thenReturn(BulkResultDto.of(List.of(
+                new BulkItemResultDto(0, UUID.randomUUID(), BulkItemResultDto.Status.CREATED, null),
+                new BulkItemResultDto(1, null, BulkItemResultDto.Status.INVALID, "isbn: ISBN must be 10 or 13 digits long"))));
+
+        mockMvc.perform(post("/api/book/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[1].status").value("INVALID"));
+    }
+
+    @Test
+    void deleteAll_tooManyIds_shouldReturnBadRequest() throws Exception {
+        when(bookBulkService.delete(anyList())).thenThrow(new IllegalArgumentException("Too many items in one request"));
+
+        mockMvc.perform(delete("/api/book/_bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(UUID.randomUUID()))))
+                .andExpect(status().isBadRequest());
     }
 }
@@ -0,0 +1,49 @@
+package com.acheron.profitsoft2.api;
+
+import com.acheron.profitsoft2.dto.response.ChangeBatchDto;
+import com.acheron.profitsoft2.dto.response.ChangeDto;
+import com.acheron.profitsoft2.service.ChangeFeedService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChangeApi.class)
+class ChangeApiIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ChangeFeedService changeFeedService;
+
+    @Test
+    void getChanges_shouldReturnBatch() throws Exception {
+        UUID id = UUID.randomUUID();
+        Mockito.when(changeFeedService.poll(41, 500))
+                .thenReturn(new ChangeBatchDto(List.of(new ChangeDto(42, "book", id, "UPDATE", Instant.now())), 42));
+
+        mockMvc.perform(get("/api/changes").param("after", "41"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].entityId").value(id.toString()))
+                .andExpect(jsonPath("$.next").value(42));
+    }
+
+    @Test
+    void getChanges_invalidLimit_shouldReturnBadRequest() throws Exception {
+        Mockito.when(changeFeedService.poll(0, 0))
+                .thenThrow(new IllegalArgumentException("limit must be between 1 and 500"));
+
+        mockMvc.perform(get("/api/changes").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
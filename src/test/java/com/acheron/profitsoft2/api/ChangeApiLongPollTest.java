@@ -0,0 +1,52 @@
+package com.acheron.profitsoft2.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that waiting change feed polls do not hold database connections,
+ * by running more polls at once than the connection pool has connections.
+ * Runs against the seeded database.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=500ms",
+        "changes.max-wait=2s",
+        "changes.poll-interval=100ms"
+})
+@AutoConfigureMockMvc
+class ChangeApiLongPollTest {
+
+    private static final int POLLS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void getChanges_morePollsThanConnections_shouldAllWaitAndReturnEmptyBatches() throws Exception {
+        List<Future<?>> polls = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < POLLS; i++) {
+                polls.add(executor.submit(() -> mockMvc.perform(get("/api/changes").param("after", String.valueOf(Long.MAX_VALUE)))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.changes").isEmpty())
+                        .andExpect(jsonPath("$.next").value(Long.MAX_VALUE))));
+            }
+            for (Future<?> poll : polls) {
+                poll.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.acheron.profitsoft2.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthorRepositoryCustomImplTest {
+
+    @Test
+    void upperBound_shouldIncrementLastCharacter() {
+        assertEquals("doe", AuthorRepositoryCustomImpl.upperBound("dod"));
+        assertEquals("o'", AuthorRepositoryCustomImpl.upperBound("o&"));
+    }
+
+    @Test
+    void upperBound_shouldSkipSurrogates() {
+        assertEquals("a\uE000", AuthorRepositoryCustomImpl.upperBound("a\uD7FF"));
+        assertEquals("a\uD83D\uDE01", AuthorRepositoryCustomImpl.upperBound("a\uD83D\uDE00"));
+    }
+
+    @Test
+    void upperBound_lastCodePoint_shouldIncrementPrevious() {
+        assertEquals("b", AuthorRepositoryCustomImpl.upperBound("a" + Character.toString(Character.MAX_CODE_POINT)));
+        assertNull(AuthorRepositoryCustomImpl.upperBound(Character.toString(Character.MAX_CODE_POINT)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.entity.Book;
+import com.acheron.profitsoft2.specification.BookSpecification;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a delta started from a watermark contains writes that were still uncommitted when the watermark was read.
+ * Runs against the seeded database; the changed book is restored afterwards.
+ */
+@SpringBootTest
+class BookDeltaWatermarkTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void deltaWatermark_writeCommittedAfterwards_shouldBeInNextDelta() throws Exception {
+        UUID id = jdbcTemplate.queryForObject("SELECT id FROM book ORDER BY id LIMIT 1", UUID.class);
+        String title = jdbcTemplate.queryForObject("SELECT title FROM book WHERE id = ?", String.class, id);
+
+        Instant watermark;
+        try (Connection writer = dataSource.getConnection()) {
+            writer.setAutoCommit(false);
+            try (PreparedStatement update = writer.prepareStatement("UPDATE book SET title = title || ' (delta)' WHERE id = ?")) {
+                update.setObject(1, id);
+                update.executeUpdate();
+            }
+            watermark = transactionTemplate.execute(status -> bookRepository.deltaWatermark());
+            writer.commit();
+        }
+
+        try {
+            Specification<Book> changedBook = BookSpecification.changedSince(watermark)
+                    .and((root, query, cb) -> cb.equal(root.get("id"), id));
+            assertEquals(1, bookRepository.count(changedBook));
+        } finally {
+            jdbcTemplate.update("UPDATE book SET title = ? WHERE id = ?", title, id);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.entity.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that re-sending a stored book leaves its row untouched when the session is not in UTC,
+ * as it is for the driver of a JVM whose default time zone is not UTC.
+ * Runs against the seeded database; every test is rolled back.
+ */
+@SpringBootTest
+@Transactional
+class BookJdbcRepositoryUpsertTest {
+
+    @Autowired
+    private BookJdbcRepository bookJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void upsertAll_identicalBookInNonUtcSession_shouldLeaveRowUnchanged() {
+        jdbcTemplate.execute("SET LOCAL TIME ZONE 'Europe/Kyiv'");
+        Book book = storedBook();
+        String xmin = xmin(book.getId());
+
+        BookJdbcRepository.UpsertResult result = bookJdbcRepository.upsertAll(List.of(book));
+
+        assertEquals(new BookJdbcRepository.UpsertResult(0, 0, 1), result);
+        assertEquals(xmin, xmin(book.getId()));
+    }
+
+    @Test
+    void upsertAll_bookWithoutPublishDateInNonUtcSession_shouldKeepStoredDateAndLeaveRowUnchanged() {
+        jdbcTemplate.execute("SET LOCAL TIME ZONE 'Europe/Kyiv'");
+        Book book = storedBook();
+        book.setPublishDate(null);
+        String xmin = xmin(book.getId());
+
+        BookJdbcRepository.UpsertResult result = bookJdbcRepository.upsertAll(List.of(book));
+
+        assertEquals(new BookJdbcRepository.UpsertResult(0, 0, 1), result);
+        assertEquals(xmin, xmin(book.getId()));
+    }
+
+    private Book storedBook() {
+        return jdbcTemplate.queryForObject(
+                "SELECT id, title, isbn, publish_date::timestamptz AS publish_date, author_id FROM book ORDER BY id LIMIT 1",
+                (rs, rowNum) -> {
+                    Author author = new Author();
+                    author.setId(rs.getObject("author_id", UUID.class));
+                    Book book = new Book();
+                    book.setId(rs.getObject("id", UUID.class));
+                    book.setTitle(rs.getString("title"));
+                    book.setIsbn(rs.getString("isbn"));
+                    book.setPublishDate(rs.getObject("publish_date", OffsetDateTime.class).toInstant());
+                    book.setAuthor(author);
+                    return book;
+                });
+    }
+
+    private String xmin(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT xmin::text FROM book WHERE id = ?", String.class, id);
+    }
+}
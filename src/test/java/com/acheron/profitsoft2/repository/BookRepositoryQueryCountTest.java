@@ -0,0 +1,159 @@
+package com.acheron.profitsoft2.repository;
+
+import com.acheron.profitsoft2.dto.request.ListBookRequest;
+import com.acheron.profitsoft2.dto.response.BookView;
+import com.acheron.profitsoft2.entity.Book;
+import com.acheron.profitsoft2.mapper.BookMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that reading books together with their authors costs a single statement,
+ * that projections skip entity hydration and that repeated reads are answered from the second-level and query caches.
+ * Runs against the seeded database, which holds 30 books of 10 different authors.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class BookRepositoryQueryCountTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookJdbcRepository bookJdbcRepository;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findSlice_shouldLoadAuthorsWithBooks() {
+        Slice<BookView> slice = bookRepository.findSlice(Specification.allOf(), PageRequest.of(0, 30));
+        slice.getContent().forEach(bookMapper::map);
+
+        assertFalse(slice.getContent().isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findLimited_shouldLoadAuthorsWithBooks() {
+        List<BookView> books = bookRepository.findLimited(Specification.allOf(), Sort.by("publishDate", "id"), 30);
+        books.forEach(bookMapper::map);
+
+        assertFalse(books.isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void streamAll_shouldLoadAuthorsWithBooks() {
+        int rows;
+        try (Stream<BookView> books = bookRepository.streamAll(Specification.allOf(), 100)) {
+            rows = books.map(bookMapper::map).toList().size();
+        }
+
+        assertTrue(rows > 0);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findById_shouldLoadAuthorWithBook() {
+        BookView any = bookRepository.findSlice(Specification.allOf(), PageRequest.of(0, 1)).getContent().getFirst();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        Book book = bookRepository.findById(any.id()).orElseThrow();
+        bookMapper.map(book);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findById_cachedBook_shouldNotQueryDatabase() {
+        BookView any = bookRepository.findSlice(Specification.allOf(), PageRequest.of(0, 1)).getContent().getFirst();
+        bookRepository.findById(any.id()).orElseThrow();
+        entityManager.clear();
+        statistics.clear();
+
+        Book book = bookRepository.findById(any.id()).orElseThrow();
+        bookMapper.map(book);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void findSlice_sameFilterTwice_shouldUseQueryCache() {
+        bookRepository.findSlice(Specification.allOf(), PageRequest.of(0, 10));
+        statistics.clear();
+
+        bookRepository.findSlice(Specification.allOf(), PageRequest.of(0, 10));
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void findSlice_afterJdbcWrite_shouldNotUseQueryCache() {
+        BookView any = bookRepository.findSlice(Specification.allOf(), PageRequest.of(0, 10)).getContent().getFirst();
+        Book book = new Book();
+        book.setId(any.id());
+        book.setTitle("Changed title");
+        bookJdbcRepository.update(book);
+        statistics.clear();
+
+        bookRepository.findSlice(Specification.allOf(), PageRequest.of(0, 10));
+
+        assertEquals(0, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void toSpecification_paddedFilters_shouldMatchLikeTheirFilterKey() {
+        BookView any = bookRepository.findSlice(Specification.allOf(), PageRequest.of(0, 1)).getContent().getFirst();
+        ListBookRequest padded = new ListBookRequest(" " + any.title().toUpperCase() + " ", null, " " + any.isbn() + " ",
+                null, null, null, null, null, null, null);
+
+        assertEquals(1, bookRepository.count(padded.toSpecification()));
+        assertEquals(bookRepository.count(padded.filterKey().toSpecification()), bookRepository.count(padded.toSpecification()));
+    }
+
+    @Test
+    void projections_shouldNotHydrateEntities() {
+        bookRepository.findSlice(Specification.allOf(), PageRequest.of(0, 30));
+
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,86 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.repository.AuthorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthorCacheTest {
+
+    private AuthorRepository authorRepository;
+    private AuthorCache authorCache;
+
+    @BeforeEach
+    void setup() {
+        authorRepository = mock(AuthorRepository.class);
+        authorCache = new AuthorCache(authorRepository, 2);
+    }
+
+    @Test
+    void find_secondCall_shouldUseCache() {
+        UUID id = UUID.randomUUID();
+        when(authorRepository.findById(id)).thenReturn(Optional.of(author(id)));
+
+        assertTrue(authorCache.find(id).isPresent());
+        assertTrue(authorCache.find(id).isPresent());
+
+        verify(authorRepository, times(1)).findById(id);
+    }
+
+    @Test
+    void findAll_shouldLoadOnlyMissingAuthors() {
+        UUID cachedId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        when(authorRepository.findById(cachedId)).thenReturn(Optional.of(author(cachedId)));
+        when(authorRepository.findAllById(List.of(missingId))).thenReturn(List.of(author(missingId)));
+        authorCache.find(cachedId);
+
+        Map<UUID, Author> result = authorCache.findAll(Set.of(cachedId, missingId));
+
+        assertEquals(2, result.size());
+        verify(authorRepository).findAllById(List.of(missingId));
+    }
+
+    @Test
+    void evict_shouldReloadAuthor() {
+        UUID id = UUID.randomUUID();
+        when(authorRepository.findById(id)).thenReturn(Optional.of(author(id)));
+        authorCache.find(id);
+
+        authorCache.evict(id);
+        authorCache.find(id);
+
+        verify(authorRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void find_overMaxSize_shouldEvictLeastRecentlyUsed() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(authorRepository.findById(any())).thenAnswer(invocation -> Optional.of(author(invocation.getArgument(0))));
+
+        authorCache.find(first);
+        authorCache.find(second);
+        authorCache.find(third);
+        authorCache.find(first);
+
+        verify(authorRepository, times(2)).findById(first);
+        verify(authorRepository, times(1)).findById(third);
+    }
+
+    private Author author(UUID id) {
+        Author author = new Author();
+        author.setId(id);
+        return author;
+    }
+}
@@ -1,19 +1,29 @@
 package com.acheron.profitsoft2.service;
 
+import com.acheron.profitsoft2.dto.request.AuthorCursor;
 import com.acheron.profitsoft2.dto.request.AuthorSaveDto;
 import com.acheron.profitsoft2.dto.request.AuthorUpdateDto;
 import com.acheron.profitsoft2.dto.response.AuthorDto;
+import com.acheron.profitsoft2.dto.response.AuthorView;
+import com.acheron.profitsoft2.dto.response.FilteredAuthorsResponse;
 import com.acheron.profitsoft2.entity.Author;
 import com.acheron.profitsoft2.mapper.AuthorMapper;
 import com.acheron.profitsoft2.repository.AuthorRepository;
+import com.acheron.profitsoft2.repository.BookJdbcRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,26 +32,80 @@ class AuthorServiceTest {
 
     private AuthorRepository authorRepository;
     private AuthorMapper authorMapper;
+    private AuthorCache authorCache;
+    private BookJdbcRepository bookJdbcRepository;
+    private PlatformTransactionManager transactionManager;
     private AuthorService authorService;
 
     @BeforeEach
     void setup() {
         authorRepository = mock(AuthorRepository.class);
         authorMapper = mock(AuthorMapper.class);
-        authorService = new AuthorService(authorRepository, authorMapper);
+        authorCache = mock(AuthorCache.class);
+        bookJdbcRepository = mock(BookJdbcRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        authorService = new AuthorService(authorRepository, authorMapper, authorCache, bookJdbcRepository,
+                new BookCountCache(Duration.ofSeconds(30)), new TransactionTemplate(transactionManager),
+                new NdjsonWriter(new ObjectMapper()), 2);
     }
 
     @Test
-    void findAll_shouldReturnList() {
-        Author author = new Author();
-        AuthorDto dto = mock(AuthorDto.class);
+    void findAll_moreAuthorsThanPageSize_shouldReturnCursor() {
+        AuthorView first = new AuthorView(UUID.randomUUID(), "John", "Doe");
+        AuthorView second = new AuthorView(UUID.randomUUID(), "Jane", "Doe");
+        when(authorRepository.findPage("do", null, 2)).thenReturn(List.of(first, second));
+
+        FilteredAuthorsResponse result = authorService.findAll(" do ", null, 1);
+
+        assertEquals(List.of(new AuthorDto("John", "Doe")), result.authors());
+        assertTrue(result.hasNext());
+        assertEquals(new AuthorCursor(first.id(), "Doe"), AuthorCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void findAll_withCursor_shouldContinueAfterIt() {
+        AuthorCursor cursor = new AuthorCursor(UUID.randomUUID(), "Doe|Smith");
+        when(authorRepository.findPage("do", cursor, 11)).thenReturn(List.of());
+
+        authorService.findAll("do", cursor.encode(), 10);
+
+        verify(authorRepository).findPage("do", cursor, 11);
+    }
+
+    @Test
+    void findAll_invalidCursor_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> authorService.findAll(null, "not a cursor", 10));
+        verifyNoInteractions(authorRepository);
+    }
+
+    @Test
+    void findAll_lastPage_shouldReturnNoCursor() {
+        AuthorCursor cursor = new AuthorCursor(UUID.randomUUID(), "Doe");
+        when(authorRepository.findPage(null, cursor, 11)).thenReturn(List.of(new AuthorView(UUID.randomUUID(), "John", "Doe")));
+
+        FilteredAuthorsResponse result = authorService.findAll(null, cursor.encode(), 10);
 
-        when(authorRepository.findAll()).thenReturn(List.of(author));
-        when(authorMapper.toDto(author)).thenReturn(dto);
+        assertFalse(result.hasNext());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void findAll_tooLargePage_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> authorService.findAll(null, null, 1001));
+        verifyNoInteractions(authorRepository);
+    }
 
-        List<AuthorDto> result = authorService.findAll();
-        assertEquals(1, result.size());
-        assertSame(dto, result.get(0));
+    @Test
+    void streamAll_shouldWriteOneLinePerAuthor() {
+        when(authorRepository.streamAll(isNull(), anyInt())).thenReturn(Stream.of(
+                new AuthorView(UUID.randomUUID(), "John", "Doe"),
+                new AuthorView(UUID.randomUUID(), "Jane", "Smith")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        authorService.streamAll(null, out);
+
+        assertEquals("{\"firstName\":\"John\",\"lastName\":\"Doe\"}\n{\"firstName\":\"Jane\",\"lastName\":\"Smith\"}\n",
+                out.toString());
     }
 
     @Test
@@ -77,6 +141,7 @@ class AuthorServiceTest {
         assertEquals("Smith", author.getLastName());
         assertEquals("newContact", author.getContactInfo());
         assertEquals(savedDto, result.getBody());
+        verify(authorCache).evict(id);
     }
 
     @Test
@@ -96,7 +161,23 @@ class AuthorServiceTest {
 
         authorService.delete(id);
 
-        verify(authorRepository).deleteById(id);
+        verify(authorRepository).deleteWithoutCascade(id);
+        verify(authorRepository, never()).deleteById(any());
+        verify(authorCache).evict(id);
+    }
+
+    @Test
+    void delete_authorWithManyBooks_shouldDeleteBooksInBatches() {
+        UUID id = UUID.randomUUID();
+        when(authorRepository.existsById(id)).thenReturn(true);
+        when(bookJdbcRepository.deleteByAuthor(id, 2)).thenReturn(2, 2, 1);
+
+        authorService.delete(id);
+
+        verify(bookJdbcRepository, times(3)).deleteByAuthor(id, 2);
+        verify(bookJdbcRepository).deleteByAuthor(id);
+        verify(authorRepository).deleteWithoutCascade(id);
+        verify(transactionManager, times(4)).getTransaction(any());
     }
 
     @Test
@@ -105,5 +186,6 @@ class AuthorServiceTest {
         when(authorRepository.existsById(id)).thenReturn(false);
 
         assertThrows(RuntimeException.class, () -> authorService.delete(id));
+        verifyNoInteractions(bookJdbcRepository);
     }
 }
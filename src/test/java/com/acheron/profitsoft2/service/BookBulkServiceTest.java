@@ -0,0 +1,130 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.config.BulkProperties;
+import com.acheron.profitsoft2.dto.request.BookBulkUpdateDto;
+import com.acheron.profitsoft2.dto.request.BookSaveDto;
+import com.acheron.profitsoft2.dto.request.BookUpdateDto;
+import com.acheron.profitsoft2.dto.response.BulkItemResultDto.Status;
+import com.acheron.profitsoft2.dto.response.BulkResultDto;
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.repository.AuthorRepository;
+import com.acheron.profitsoft2.repository.BookJdbcRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookBulkServiceTest {
+
+    private BookJdbcRepository bookJdbcRepository;
+    private AuthorRepository authorRepository;
+    private PlatformTransactionManager transactionManager;
+    private BookBulkService bookBulkService;
+
+    @BeforeEach
+    void setup() {
+        bookJdbcRepository = mock(BookJdbcRepository.class);
+        authorRepository = mock(AuthorRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        bookBulkService = new BookBulkService(
+                bookJdbcRepository,
+                new AuthorCache(authorRepository, 100),
+                new BookCountCache(Duration.ofSeconds(30)),
+                new TransactionTemplate(transactionManager),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new BulkProperties(2, 5)
+        );
+    }
+
+    @Test
+    void create_shouldInsertValidBooksInChunks() {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+
+        BulkResultDto result = bookBulkService.create(List.of(
+                new BookSaveDto(authorId.toString(), "Book1", "1234567890"),
+                new BookSaveDto(authorId.toString(), "Book2", "1234567891"),
+                new BookSaveDto(authorId.toString(), "Book3", "12ab"),
+                new BookSaveDto(UUID.randomUUID().toString(), "Book4", "1234567893")));
+
+        assertEquals(2, result.succeeded());
+        assertEquals(List.of(Status.CREATED, Status.CREATED, Status.INVALID, Status.INVALID),
+                result.items().stream().map(item -> item.status()).toList());
+        verify(bookJdbcRepository, times(1)).insertAll(anyList());
+        verify(authorRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void create_failingBatch_shouldReportOnlyConflictingBooks() {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(bookJdbcRepository).insertAll(anyList());
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(bookJdbcRepository).insert(argThat(book -> "Duplicate".equals(book.getTitle())));
+
+        BulkResultDto result = bookBulkService.create(List.of(
+                new BookSaveDto(authorId.toString(), "Book1", "1234567890"),
+                new BookSaveDto(authorId.toString(), "Duplicate", "1234567891")));
+
+        assertEquals(Status.CREATED, result.items().get(0).status());
+        assertEquals(Status.CONFLICT, result.items().get(1).status());
+        assertEquals("duplicate key", result.items().get(1).error());
+    }
+
+    @Test
+    void update_unknownId_shouldReportNotFound() {
+        UUID known = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        when(bookJdbcRepository.updateAll(anyList())).thenReturn(new int[]{1, 0});
+
+        BulkResultDto result = bookBulkService.update(List.of(
+                new BookBulkUpdateDto(known, new BookUpdateDto("New title", null)),
+                new BookBulkUpdateDto(unknown, new BookUpdateDto(null, "1234567890"))));
+
+        assertEquals(Status.UPDATED, result.items().get(0).status());
+        assertEquals(Status.NOT_FOUND, result.items().get(1).status());
+        assertEquals(unknown, result.items().get(1).id());
+    }
+
+    @Test
+    void delete_shouldRunOneStatementPerChunk() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(bookJdbcRepository.deleteAll(anyCollection())).thenReturn(Set.of(first, second), Set.of());
+
+        BulkResultDto result = bookBulkService.delete(List.of(first, second, missing));
+
+        assertEquals(2, result.succeeded());
+        assertEquals(Status.NOT_FOUND, result.items().get(2).status());
+        verify(bookJdbcRepository, times(2)).deleteAll(anyCollection());
+        verify(transactionManager, times(2)).getTransaction(
+                argThat(definition -> definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRED));
+    }
+
+    @Test
+    void delete_overMaxItems_shouldThrow() {
+        List<UUID> ids = Collections.nCopies(6, UUID.randomUUID());
+
+        assertThrows(IllegalArgumentException.class, () -> bookBulkService.delete(ids));
+        verifyNoInteractions(bookJdbcRepository);
+    }
+
+    private Author author(UUID id) {
+        Author author = new Author();
+        author.setId(id);
+        return author;
+    }
+}
@@ -0,0 +1,125 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.dto.response.AuthorDto;
+import com.acheron.profitsoft2.dto.response.BookDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookColumnarWriterTest {
+
+    private final BookColumnarWriter writer = new BookColumnarWriter();
+
+    @Test
+    void write_shouldRoundTripBooks() throws Exception {
+        List<BookDto> books = List.of(
+                new BookDto(new AuthorDto("John", "Doe"), "Title, \"quoted\"", "9781234567897", Instant.parse("2025-01-01T00:00:00Z")),
+                new BookDto(new AuthorDto("Jane", "Roe"), "\u0414\u0440\u0443\u0433\u0438\u0439", "0123456789", null),
+                new BookDto(new AuthorDto("John", "Doe"), "Third", "9781234567880", Instant.parse("1999-12-31T23:59:59.123456Z")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, writer.write(books.stream(), out));
+
+        assertEquals(books, read(out.toByteArray()));
+    }
+
+    @Test
+    void write_shouldEncodeEachAuthorOncePerRowGroup() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(IntStream.range(0, 100).mapToObj(i -> new BookDto(new AuthorDto("John", "Doe"), "Title",
+                String.valueOf(9780000000000L + i), Instant.EPOCH)), out);
+
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        in.skipNBytes(BookColumnarWriter.MAGIC.length);
+        assertEquals(100, readVarint(in));
+        readVarint(in);
+        assertEquals(1, readVarint(in));
+    }
+
+    @Test
+    void write_shouldSplitRowGroups() throws Exception {
+        int rows = BookColumnarWriter.ROW_GROUP_SIZE + 1;
+        List<BookDto> books = IntStream.range(0, rows)
+                .mapToObj(i -> new BookDto(new AuthorDto("John" + i % 7, "Doe"), "Title " + i,
+                        String.valueOf(9780000000000L + i), Instant.EPOCH.plusSeconds(i)))
+                .toList();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(books.stream(), out);
+
+        assertEquals(books, read(out.toByteArray()));
+    }
+
+    @Test
+    void write_noBooks_shouldWriteOnlyHeaderAndEnd() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, writer.write(Stream.empty(), out));
+        assertArrayEquals(new byte[]{'B', 'K', 'C', '1', 0}, out.toByteArray());
+    }
+
+    private List<BookDto> read(byte[] bytes) throws Exception {
+        InputStream in = new ByteArrayInputStream(bytes);
+        assertArrayEquals(BookColumnarWriter.MAGIC, in.readNBytes(4));
+        List<BookDto> books = new ArrayList<>();
+        int rows;
+        while ((rows = (int) readVarint(in)) > 0) {
+            InputStream authorsColumn = column(in);
+            AuthorDto[] authors = new AuthorDto[(int) readVarint(authorsColumn)];
+            for (int i = 0; i < authors.length; i++) {
+                authors[i] = new AuthorDto(readString(authorsColumn), readString(authorsColumn));
+            }
+            InputStream author = column(in);
+            InputStream title = column(in);
+            InputStream isbn = column(in);
+            InputStream publishDate = column(in);
+
+            long previousMicros = 0;
+            for (int i = 0; i < rows; i++) {
+                long isbnCode = readVarint(isbn);
+                String isbnValue = isbnCode == 0 ? readString(isbn)
+                        : isbnCode - 1 >= 10_000_000_000_000L ? String.format("%010d", isbnCode - 1 - 10_000_000_000_000L)
+                        : String.format("%013d", isbnCode - 1);
+                long dateCode = readVarint(publishDate);
+                Instant date = null;
+                if (dateCode != 0) {
+                    long zigzag = dateCode - 1;
+                    previousMicros += (zigzag >>> 1) ^ -(zigzag & 1);
+                    date = Instant.EPOCH.plus(previousMicros, ChronoUnit.MICROS);
+                }
+                books.add(new BookDto(authors[(int) readVarint(author)], readString(title), isbnValue, date));
+            }
+        }
+        return books;
+    }
+
+    private InputStream column(InputStream in) throws Exception {
+        return new ByteArrayInputStream(in.readNBytes((int) readVarint(in)));
+    }
+
+    private String readString(InputStream in) throws Exception {
+        return new String(in.readNBytes((int) readVarint(in)), StandardCharsets.UTF_8);
+    }
+
+    private long readVarint(InputStream in) throws Exception {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.config.ImportProperties;
+import com.acheron.profitsoft2.dto.request.ImportMode;
+import com.acheron.profitsoft2.dto.response.UploadResultDto;
+import com.acheron.profitsoft2.entity.Author;
+import com.acheron.profitsoft2.entity.Book;
+import com.acheron.profitsoft2.metrics.BookMetrics;
+import com.acheron.profitsoft2.repository.AuthorRepository;
+import com.acheron.profitsoft2.repository.BookCopyRepository;
+import com.acheron.profitsoft2.repository.BookJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookImportServiceTest {
+
+    private BookJdbcRepository bookJdbcRepository;
+    private BookCopyRepository bookCopyRepository;
+    private AuthorRepository authorRepository;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setup() {
+        bookJdbcRepository = mock(BookJdbcRepository.class);
+        bookCopyRepository = mock(BookCopyRepository.class);
+        authorRepository = mock(AuthorRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        bookImportService = importService(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookImportService.shutdown();
+    }
+
+    @Test
+    void uploadBooks_shouldImportBooks() throws Exception {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+
+        String json = "[{\"title\":\"Book1\",\"isbn\":\"1234567890\",\"authorId\":\"" + authorId + "\",\"publishDate\":\"2025-12-10T10:00:00Z\"}]";
+        MultipartFile file = mockFile(json);
+
+        UploadResultDto result = bookImportService.uploadBooks(file, ImportMode.INSERT);
+        assertEquals(1, result.imported());
+        assertEquals(0, result.errors().size());
+    }
+
+    @Test
+    void uploadBooks_moreBooksThanChunkSize_shouldImportAll() throws Exception {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"title\":\"Book").append(i).append("\",\"isbn\":\"123456789").append(i)
+                    .append("\",\"authorId\":\"").append(authorId).append("\"}");
+        }
+        json.append(']');
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json.toString()), ImportMode.INSERT);
+
+        assertEquals(5, result.imported());
+        verify(authorRepository, times(1)).findAllById(anyIterable());
+        verify(authorRepository, never()).findById(any());
+        verify(bookJdbcRepository, times(3)).insertAll(anyList());
+        verify(bookJdbcRepository, never()).insert(any(Book.class));
+    }
+
+    @Test
+    void uploadBooks_failingBatch_shouldReportOnlyBrokenRows() throws Exception {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(bookJdbcRepository).insertAll(anyList());
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(bookJdbcRepository).insert(argThat(book -> "Duplicate".equals(book.getTitle())));
+
+        String json = "[{\"title\":\"Book1\",\"isbn\":\"1234567890\",\"authorId\":\"" + authorId + "\"},"
+                + "{\"title\":\"Duplicate\",\"isbn\":\"1234567891\",\"authorId\":\"" + authorId + "\"}]";
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json), ImportMode.INSERT);
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.failed());
+        assertTrue(result.errors().get(0).contains("Duplicate"));
+    }
+
+    @Test
+    void uploadBooks_isbnRepeatedInFile_shouldFailWithoutInsert() throws Exception {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+
+        String json = "[{\"title\":\"Book1\",\"isbn\":\"1234567890\",\"authorId\":\"" + authorId + "\"},"
+                + "{\"title\":\"Book2\",\"isbn\":\"1234567890\",\"authorId\":\"" + authorId + "\"},"
+                + "{\"title\":\"Book3\",\"isbn\":\"0001234567890\",\"authorId\":\"" + authorId + "\"}]";
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json), ImportMode.INSERT);
+
+        assertEquals(2, result.imported());
+        assertEquals(1, result.failed());
+        assertTrue(result.errors().get(0).contains("Duplicate ISBN in file: 1234567890"));
+        verify(bookJdbcRepository).insertAll(argThat(books -> books.size() == 2));
+    }
+
+    @Test
+    void uploadBooks_existingIsbn_shouldFailWithoutInsert() throws Exception {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+        when(bookJdbcRepository.findExistingIsbns(anyCollection())).thenReturn(Set.of("1234567891"));
+
+        String json = "[{\"title\":\"Book1\",\"isbn\":\"1234567890\",\"authorId\":\"" + authorId + "\"},"
+                + "{\"title\":\"Book2\",\"isbn\":\"1234567891\",\"authorId\":\"" + authorId + "\"}]";
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json), ImportMode.INSERT);
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.failed());
+        assertTrue(result.errors().get(0).contains("ISBN already exists: 1234567891"));
+        verify(bookJdbcRepository).findExistingIsbns(List.of("1234567890", "1234567891"));
+        verify(bookJdbcRepository).insertAll(argThat(books -> books.size() == 1));
+        verify(bookJdbcRepository, never()).insert(any(Book.class));
+    }
+
+    @Test
+    void uploadBooks_invalidIsbn_shouldFailWithoutInsert() throws Exception {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+
+        String json = "[{\"title\":\"Book1\",\"isbn\":\"12ab\",\"authorId\":\"" + authorId + "\"}]";
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json), ImportMode.INSERT);
+
+        assertEquals(0, result.imported());
+        assertEquals(1, result.failed());
+        verifyNoInteractions(bookJdbcRepository);
+    }
+
+    @Test
+    void uploadBooks_unknownAuthor_shouldReportFailure() throws Exception {
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        String json = "[{\"title\":\"Book1\",\"isbn\":\"1234567890\",\"authorId\":\"" + UUID.randomUUID() + "\"}]";
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json), ImportMode.INSERT);
+
+        assertEquals(0, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(1, result.errors().size());
+    }
+
+    @Test
+    void uploadBooks_shouldCountImportedAndFailedRows() throws Exception {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+
+        String json = "[{\"title\":\"Book1\",\"isbn\":\"1234567890\",\"authorId\":\"" + authorId + "\"},"
+                + "{\"title\":\"Book2\",\"isbn\":\"12ab\",\"authorId\":\"" + authorId + "\"}]";
+
+        bookImportService.uploadBooks(mockFile(json), ImportMode.INSERT);
+
+        assertEquals(1, meterRegistry.get("book.import.rows").tag("result", "imported").counter().count());
+        assertEquals(1, meterRegistry.get("book.import.rows").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    void uploadBooks_notAnArray_shouldReturnError() throws Exception {
+        UploadResultDto result = bookImportService.uploadBooks(mockFile("{\"title\":\"Book1\"}"), ImportMode.INSERT);
+
+        assertEquals(0, result.imported());
+        assertEquals(1, result.errors().size());
+        verifyNoInteractions(bookJdbcRepository);
+    }
+
+    @Test
+    void uploadBooks_parallelWorkers_shouldCommitEveryChunkSeparately() throws Exception {
+        bookImportService.shutdown();
+        bookImportService = importService(4);
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"title\":\"Book").append(i).append("\",\"isbn\":\"12345678").append(String.format("%02d", i))
+                    .append("\",\"authorId\":\"").append(authorId).append("\"}");
+        }
+        json.append(']');
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json.toString()), ImportMode.INSERT);
+
+        assertEquals(20, result.imported());
+        verify(bookJdbcRepository, times(10)).insertAll(anyList());
+        verify(transactionManager, times(5)).getTransaction(
+                argThat(definition -> definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRED));
+    }
+
+    @Test
+    void importBooks_parallelWorkers_shouldReportIncreasingProgress() throws Exception {
+        bookImportService.shutdown();
+        bookImportService = importService(4);
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 40; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"title\":\"Book").append(i).append("\",\"isbn\":\"12345678").append(String.format("%02d", i))
+                    .append("\",\"authorId\":\"").append(authorId).append("\"}");
+        }
+        json.append(']');
+        List<Integer> processed = new ArrayList<>();
+
+        bookImportService.importBooks(mockFile(json.toString()), ImportMode.INSERT,
+                progress -> processed.add(progress.imported() + progress.failed()));
+
+        assertEquals(10, processed.size());
+        for (int i = 1; i < processed.size(); i++) {
+            assertTrue(processed.get(i) > processed.get(i - 1), "progress went backwards: " + processed);
+        }
+        assertEquals(40, processed.getLast());
+    }
+
+    @Test
+    void uploadBooks_upsertMode_shouldCountInsertedUpdatedAndUnchangedRows() throws Exception {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+        when(bookJdbcRepository.upsertAll(anyList())).thenReturn(
+                new BookJdbcRepository.UpsertResult(1, 1, 0),
+                new BookJdbcRepository.UpsertResult(0, 0, 1));
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 3; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"title\":\"Book").append(i).append("\",\"isbn\":\"123456789").append(i)
+                    .append("\",\"authorId\":\"").append(authorId).append("\"}");
+        }
+        json.append(']');
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json.toString()), ImportMode.UPSERT);
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.updated());
+        assertEquals(1, result.unchanged());
+        assertEquals(0, result.failed());
+        verify(bookJdbcRepository, times(2)).upsertAll(anyList());
+        verify(bookJdbcRepository, never()).findExistingIsbns(any());
+        verify(bookJdbcRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void uploadBooks_upsertMode_failingBatch_shouldReportOnlyBrokenRows() throws Exception {
+        UUID authorId = UUID.randomUUID();
+        when(authorRepository.findAllById(anyIterable())).thenReturn(List.of(author(authorId)));
+        when(bookJdbcRepository.upsertAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            if (books.size() > 1 || "Broken".equals(books.get(0).getTitle())) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return new BookJdbcRepository.UpsertResult(0, 1, 0);
+        });
+
+        String json = "[{\"title\":\"Book1\",\"isbn\":\"1234567890\",\"authorId\":\"" + authorId + "\"},"
+                + "{\"title\":\"Broken\",\"isbn\":\"1234567891\",\"authorId\":\"" + authorId + "\"}]";
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json), ImportMode.UPSERT);
+
+        assertEquals(1, result.updated());
+        assertEquals(1, result.failed());
+        assertTrue(result.errors().get(0).contains("Broken"));
+    }
+
+    @Test
+    void uploadBooks_copyMode_shouldReportRejectedRows() throws Exception {
+        when(bookCopyRepository.copyAll(anyList())).thenReturn(new TreeMap<>(Map.of(1, "ISBN already exists: 1234567891")));
+
+        String json = "[{\"title\":\"Book1\",\"isbn\":\"1234567890\",\"authorId\":\"" + UUID.randomUUID() + "\"},"
+                + "{\"title\":\"Book2\",\"isbn\":\"1234567891\",\"authorId\":\"" + UUID.randomUUID() + "\"}]";
+
+        UploadResultDto result = bookImportService.uploadBooks(mockFile(json), ImportMode.COPY);
+
+        assertEquals(1, result.imported());
+        assertEquals(1, result.failed());
+        assertTrue(result.errors().get(0).contains("Book2"));
+        verifyNoInteractions(authorRepository, bookJdbcRepository);
+    }
+
+    private BookImportService importService(int workers) {
+        return new BookImportService(
+                bookJdbcRepository,
+                bookCopyRepository,
+                new AuthorCache(authorRepository, 100),
+                new BookCountCache(Duration.ofSeconds(30)),
+                new TransactionTemplate(transactionManager),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ImportProperties(4, 2, 4, 100, workers, 1, 1, Duration.ofSeconds(30), Duration.ofMinutes(2)),
+                new BookMetrics(meterRegistry)
+        );
+    }
+
+    private Author author(UUID id) {
+        Author author = new Author();
+        author.setId(id);
+        return author;
+    }
+
+    private MultipartFile mockFile(String json) throws Exception {
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(json.getBytes()));
+        return file;
+    }
+}
@@ -1,24 +1,43 @@
 package com.acheron.profitsoft2.service;
 
+import com.acheron.profitsoft2.dto.request.BookCursor;
 import com.acheron.profitsoft2.dto.request.BookSaveDto;
 import com.acheron.profitsoft2.dto.request.BookUpdateDto;
+import com.acheron.profitsoft2.dto.request.ExportFormat;
+import com.acheron.profitsoft2.dto.request.FilteredBooksResponse;
+import com.acheron.profitsoft2.dto.request.ListBookRequest;
+import com.acheron.profitsoft2.dto.response.AuthorDto;
 import com.acheron.profitsoft2.dto.response.BookDto;
-import com.acheron.profitsoft2.dto.response.UploadResultDto;
+import com.acheron.profitsoft2.dto.response.BookVersion;
+import com.acheron.profitsoft2.dto.response.BookView;
 import com.acheron.profitsoft2.entity.Author;
 import com.acheron.profitsoft2.entity.Book;
 import com.acheron.profitsoft2.exception.EntityNotFoundException;
+import com.acheron.profitsoft2.exception.PreconditionFailedException;
 import com.acheron.profitsoft2.mapper.BookMapper;
-import com.acheron.profitsoft2.repository.AuthorRepository;
+import com.acheron.profitsoft2.metrics.BookMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.acheron.profitsoft2.repository.BookRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,16 +45,18 @@ import static org.mockito.Mockito.*;
 class BookServiceTest {
 
     private BookRepository bookRepository;
-    private AuthorRepository authorRepository;
     private BookMapper bookMapper;
+    private BookCountCache bookCountCache;
     private BookService bookService;
 
     @BeforeEach
     void setup() {
         bookRepository = mock(BookRepository.class);
-        authorRepository = mock(AuthorRepository.class);
         bookMapper = mock(BookMapper.class);
-        bookService = new BookService(bookRepository, bookMapper, authorRepository);
+        bookCountCache = new BookCountCache(Duration.ofSeconds(30));
+        bookService = new BookService(bookRepository, bookMapper, bookCountCache,
+                new BookMetrics(new SimpleMeterRegistry()), new NdjsonWriter(new ObjectMapper()),
+                new BookCsvWriter(), new BookColumnarWriter());
     }
 
     @Test
@@ -57,17 +78,27 @@ class BookServiceTest {
     @Test
     void findById_existingBook_returnsDto() {
         UUID id = UUID.randomUUID();
-        Book book = new Book();
+        Book book = bookWithVersions(3, 1);
         BookDto bookDto = mock(BookDto.class);
 
         when(bookRepository.findById(id)).thenReturn(Optional.of(book));
         when(bookMapper.map(book)).thenReturn(bookDto);
 
-        BookDto result = bookService.findById(id).getBody();
-        assertNotNull(result);
+        ResponseEntity<BookDto> response = bookService.findById(id);
+        assertNotNull(response.getBody());
+        assertEquals("\"3.1\"", response.getHeaders().getETag());
         verify(bookRepository).findById(id);
     }
 
+    @Test
+    void findEtag_shouldNotLoadBook() {
+        UUID id = UUID.randomUUID();
+        when(bookRepository.findVersionById(id)).thenReturn(Optional.of(new BookVersion(3, 1)));
+
+        assertEquals("3.1", bookService.findEtag(id));
+        verify(bookRepository, never()).findById(id);
+    }
+
     @Test
     void findById_nonExistingBook_throwsException() {
         UUID id = UUID.randomUUID();
@@ -80,32 +111,223 @@ class BookServiceTest {
     void updateBook_shouldUpdateFields() {
         UUID id = UUID.randomUUID();
         BookUpdateDto dto = new BookUpdateDto("Updated Title", "0987654321");
-        Book book = new Book();
-        Book savedBook = new Book();
+        Book book = bookWithVersions(0, 0);
+        Book savedBook = bookWithVersions(1, 0);
         BookDto bookDto = mock(BookDto.class);
 
         when(bookRepository.findById(id)).thenReturn(Optional.of(book));
         when(bookRepository.save(book)).thenReturn(savedBook);
         when(bookMapper.map(savedBook)).thenReturn(bookDto);
 
-        BookDto result = bookService.update(id, dto).getBody();
-        assertNotNull(result);
+        ResponseEntity<BookDto> response = bookService.update(id, dto, "0.0");
+        assertNotNull(response.getBody());
+        assertEquals("\"1.0\"", response.getHeaders().getETag());
         assertEquals("Updated Title", book.getTitle());
         assertEquals("0987654321", book.getIsbn());
     }
 
     @Test
-    void uploadBooks_shouldImportBooks() throws Exception {
-        UUID authorId = UUID.randomUUID();
-        Author author = new Author();
-        when(authorRepository.findById(authorId)).thenReturn(Optional.of(author));
+    void updateBook_staleEtag_shouldFailPrecondition() {
+        UUID id = UUID.randomUUID();
+        when(bookRepository.findById(id)).thenReturn(Optional.of(bookWithVersions(2, 0)));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> bookService.update(id, new BookUpdateDto("Updated Title", null), "1.0"));
+        verify(bookRepository, never()).save(any());
+    }
+
+    @Test
+    void exportAll_shouldWriteCsvRows() throws Exception {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, null, null, null, null, null);
+        BookView book = book(0);
+        BookDto bookDto = new BookDto(new AuthorDto("John", "Doe"), "Title", "1234567890", Instant.parse("2025-01-01T00:00:00Z"));
+
+        when(bookRepository.streamAll(any(), anyInt())).thenReturn(Stream.of(book));
+        when(bookMapper.map(book)).thenReturn(bookDto);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookService.exportAll(request, ExportFormat.CSV, out);
+
+        assertEquals("title,isbn,publish_date,author_first_name,author_last_name\r\n"
+                + "Title,1234567890,2025-01-01T00:00:00Z,John,Doe\r\n", out.toString());
+    }
+
+    @Test
+    void exportAll_shouldQuoteCsvFields() throws Exception {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, null, null, null, null, null);
+        BookView book = book(0);
+        BookDto bookDto = new BookDto(new AuthorDto("John", "O\"Doe"), "Title, \"Part\"\nTwo", "1234567890", null);
+
+        when(bookRepository.streamAll(any(), anyInt())).thenReturn(Stream.of(book));
+        when(bookMapper.map(book)).thenReturn(bookDto);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookService.exportAll(request, ExportFormat.CSV, out);
+
+        assertTrue(out.toString().endsWith("\"Title, \"\"Part\"\"\nTwo\",1234567890,,John,\"O\"\"Doe\"\r\n"));
+    }
+
+    @Test
+    void exportAll_gzip_shouldCompressCsvWithoutClosingOutput() throws Exception {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, null, null, null, null, null);
+        BookView book = book(0);
+        BookDto bookDto = new BookDto(new AuthorDto("John", "Doe"), "Title", "1234567890", Instant.parse("2025-01-01T00:00:00Z"));
+
+        when(bookRepository.streamAll(any(), anyInt())).thenReturn(Stream.of(book));
+        when(bookMapper.map(book)).thenReturn(bookDto);
+
+        boolean[] closed = new boolean[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        bookService.exportAll(request, ExportFormat.CSV_GZIP, out);
+
+        assertFalse(closed[0]);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("title,isbn,publish_date,author_first_name,author_last_name\r\n"
+                    + "Title,1234567890,2025-01-01T00:00:00Z,John,Doe\r\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void streamAll_shouldWriteOneBookPerLine() {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, null, null, null, null, null);
+        BookView book = book(0);
+        BookDto bookDto = new BookDto(new AuthorDto("John", "Doe"), "Title", "1234567890", Instant.parse("2025-01-01T00:00:00Z"));
+
+        when(bookRepository.streamAll(any(), anyInt())).thenReturn(Stream.of(book, book));
+        when(bookMapper.map(book)).thenReturn(bookDto);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookService.streamAll(request, out);
+
+        String line = "{\"author\":{\"firstName\":\"John\",\"lastName\":\"Doe\"},\"title\":\"Title\","
+                + "\"isbn\":\"1234567890\",\"publishDate\":\"2025-01-01T00:00:00Z\"}\n";
+        assertEquals(line + line, out.toString());
+    }
+
+    @Test
+    void findAll_keyset_shouldReturnNextCursorWithoutTotal() {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, 2,
+                ListBookRequest.Pagination.KEYSET, null, null, null);
+        List<BookView> books = List.of(book(1), book(2), book(3));
+        when(bookRepository.findLimited(any(), any(), eq(3))).thenReturn(books);
+        when(bookMapper.map(any(BookView.class))).thenReturn(mock(BookDto.class));
 
-        String json = "[{\"title\":\"Book1\",\"isbn\":\"1234567890\",\"authorId\":\"" + authorId + "\",\"publishDate\":\"2025-12-10T10:00:00Z\"}]";
-        MultipartFile file = mock(MultipartFile.class);
-        when(file.getBytes()).thenReturn(json.getBytes());
+        FilteredBooksResponse response = bookService.findAll(request);
 
-        UploadResultDto result = bookService.uploadBooks(file);
-        assertEquals(1, result.imported());
-        assertEquals(0, result.errors().size());
+        assertEquals(2, response.books().size());
+        assertNull(response.totalPages());
+        assertEquals(BookCursor.of(books.get(1)), BookCursor.decode(response.nextCursor()));
+        verify(bookRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void findAll_keyset_lastPage_shouldReturnNoCursor() {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, 2,
+                ListBookRequest.Pagination.KEYSET, BookCursor.of(book(0)).encode(), null, null);
+        when(bookRepository.findLimited(any(), any(), eq(3))).thenReturn(List.of(book(1)));
+        when(bookMapper.map(any(BookView.class))).thenReturn(mock(BookDto.class));
+
+        FilteredBooksResponse response = bookService.findAll(request);
+
+        assertEquals(1, response.books().size());
+        assertNull(response.nextCursor());
+    }
+
+    @Test
+    void findAll_keyset_invalidCursor_throwsException() {
+        ListBookRequest request = new ListBookRequest(null, null, null, null, null, 2,
+                ListBookRequest.Pagination.KEYSET, "not-a-cursor", null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> bookService.findAll(request));
+    }
+
+    @Test
+    void findAll_offset_shouldCountOncePerFilter() {
+        when(bookRepository.findSlice(any(), any())).thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), true));
+        when(bookRepository.count(any(Specification.class))).thenReturn(25L);
+
+        FilteredBooksResponse first = bookService.findAll(new ListBookRequest("Title", null, null, null, 0, 10, null, null, null, null));
+        FilteredBooksResponse second = bookService.findAll(new ListBookRequest(" title ", null, null, null, 1, 10, null, null, null, null));
+
+        assertEquals(3, first.totalPages());
+        assertEquals(3, second.totalPages());
+        assertTrue(second.hasNext());
+        verify(bookRepository, times(1)).count(any(Specification.class));
+    }
+
+    @Test
+    void findAll_skipCount_shouldNotCount() {
+        when(bookRepository.findSlice(any(), any())).thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        FilteredBooksResponse response = bookService.findAll(new ListBookRequest(null, null, null, null, 0, 10, null, null, true, null));
+
+        assertNull(response.totalPages());
+        assertFalse(response.hasNext());
+        verify(bookRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void findAll_afterWrite_shouldCountAgain() {
+        when(bookRepository.findSlice(any(), any())).thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+        when(bookRepository.count(any(Specification.class))).thenReturn(5L);
+        ListBookRequest request = new ListBookRequest(null, null, null, null, 0, 10, null, null, null, null);
+
+        bookService.findAll(request);
+        bookService.delete(UUID.randomUUID());
+        bookService.findAll(request);
+
+        verify(bookRepository, times(2)).count(any(Specification.class));
+    }
+
+    @Test
+    void findAll_changedSince_shouldReturnWatermarkTakenBeforeReading() {
+        Instant watermark = Instant.parse("2025-06-01T12:00:00Z");
+        when(bookRepository.deltaWatermark()).thenReturn(watermark);
+        when(bookRepository.findSlice(any(), any())).thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        FilteredBooksResponse response = bookService.findAll(new ListBookRequest(null, null, null, null, 0, 10, null, null, true,
+                Instant.parse("2025-06-01T11:00:00Z")));
+
+        assertEquals(watermark, response.nextWatermark());
+        InOrder inOrder = inOrder(bookRepository);
+        inOrder.verify(bookRepository).deltaWatermark();
+        inOrder.verify(bookRepository).findSlice(any(), any());
+    }
+
+    @Test
+    void findAll_withoutChangedSince_shouldNotReturnWatermark() {
+        when(bookRepository.findSlice(any(), any())).thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        FilteredBooksResponse response = bookService.findAll(new ListBookRequest(null, null, null, null, 0, 10, null, null, true, null));
+
+        assertNull(response.nextWatermark());
+        verify(bookRepository, never()).deltaWatermark();
+    }
+
+    @Test
+    void filterKey_shouldKeepChangedSince() {
+        Instant since = Instant.parse("2025-06-01T11:00:00Z");
+        ListBookRequest request = new ListBookRequest(null, null, null, null, 3, 10, null, null, null, since);
+
+        assertEquals(since, request.filterKey().changedSince());
+    }
+
+    private BookView book(int day) {
+        return new BookView(UUID.randomUUID(), "Title", "1234567890",
+                Instant.parse("2025-01-01T00:00:00Z").plusSeconds(day * 86400L), "John", "Doe");
+    }
+
+    private Book bookWithVersions(long bookVersion, long authorVersion) {
+        Author author = new Author();
+        author.setVersion(authorVersion);
+        Book book = new Book();
+        book.setAuthor(author);
+        book.setVersion(bookVersion);
+        return book;
     }
 }
@@ -0,0 +1,81 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.config.ChangeFeedProperties;
+import com.acheron.profitsoft2.dto.response.ChangeBatchDto;
+import com.acheron.profitsoft2.dto.response.ChangeDto;
+import com.acheron.profitsoft2.repository.ChangeLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChangeFeedServiceTest {
+
+    private ChangeLogRepository changeLogRepository;
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setup() {
+        changeLogRepository = mock(ChangeLogRepository.class);
+        changeFeedService = new ChangeFeedService(
+                changeLogRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new ChangeFeedProperties(10, Duration.ofSeconds(5), Duration.ofMillis(1)));
+    }
+
+    @Test
+    void poll_shouldReturnAvailableChanges() {
+        when(changeLogRepository.findAfter(3, 10)).thenReturn(List.of(change(4), change(5)));
+
+        ChangeBatchDto batch = changeFeedService.poll(3, 10);
+
+        assertEquals(2, batch.changes().size());
+        assertEquals(5, batch.next());
+        verify(changeLogRepository).assignSequence();
+    }
+
+    @Test
+    void poll_shouldWaitForChanges() {
+        when(changeLogRepository.findAfter(0, 10))
+                .thenReturn(List.of())
+                .thenReturn(List.of())
+                .thenReturn(List.of(change(1)));
+
+        ChangeBatchDto batch = changeFeedService.poll(0, 10);
+
+        assertEquals(1, batch.next());
+        verify(changeLogRepository, times(3)).assignSequence();
+    }
+
+    @Test
+    void poll_noChangesUntilTimeout_shouldReturnEmptyBatch() {
+        changeFeedService = new ChangeFeedService(
+                changeLogRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new ChangeFeedProperties(10, Duration.ZERO, Duration.ofMillis(1)));
+        when(changeLogRepository.findAfter(7, 10)).thenReturn(List.of());
+
+        ChangeBatchDto batch = changeFeedService.poll(7, 10);
+
+        assertTrue(batch.changes().isEmpty());
+        assertEquals(7, batch.next());
+    }
+
+    @Test
+    void poll_limitOverBatchSize_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> changeFeedService.poll(0, 11));
+        verifyNoInteractions(changeLogRepository);
+    }
+
+    private ChangeDto change(long seq) {
+        return new ChangeDto(seq, "book", UUID.randomUUID(), "INSERT", Instant.now());
+    }
+}
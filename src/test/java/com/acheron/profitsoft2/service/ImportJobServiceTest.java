@@ -0,0 +1,123 @@
+package com.acheron.profitsoft2.service;
+
+import com.acheron.profitsoft2.dto.request.ImportMode;
+import com.acheron.profitsoft2.dto.response.ImportJobDto;
+import com.acheron.profitsoft2.dto.response.UploadResultDto;
+import com.acheron.profitsoft2.entity.ImportJob;
+import com.acheron.profitsoft2.exception.EntityNotFoundException;
+import com.acheron.profitsoft2.repository.ImportJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ImportJobServiceTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private final Map<UUID, ImportJob> jobs = new HashMap<>();
+    private ImportJobRepository importJobRepository;
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setup() {
+        importJobRepository = mock(ImportJobRepository.class);
+        bookImportService = mock(BookImportService.class);
+        when(importJobRepository.save(any(ImportJob.class))).thenAnswer(invocation -> {
+            ImportJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(UUID.randomUUID());
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(importJobRepository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<UUID>getArgument(0))));
+    }
+
+    @Test
+    void submit_shouldRunImportAndStoreResult() throws Exception {
+        ImportJobService importJobService = new ImportJobService(importJobRepository, bookImportService, Runnable::run, LEASE);
+        when(bookImportService.importBooks(any(), any(), any())).thenReturn(new UploadResultDto(2, 0, 0, 1, List.of("Failed")));
+
+        ImportJobDto submitted = importJobService.submit(new MockMultipartFile("file", "books.json", "application/json", "[]".getBytes()), ImportMode.INSERT);
+        ImportJobDto job = importJobService.find(submitted.id());
+
+        assertEquals(ImportJob.Status.COMPLETED, job.status());
+        assertEquals(3, job.processed());
+        assertEquals(new UploadResultDto(2, 0, 0, 1, List.of("Failed")), job.result());
+        assertNotNull(job.finishedAt());
+    }
+
+    @Test
+    void submit_importThrows_shouldMarkJobFailed() throws Exception {
+        ImportJobService importJobService = new ImportJobService(importJobRepository, bookImportService, Runnable::run, LEASE);
+        when(bookImportService.importBooks(any(), any(), any())).thenThrow(new IllegalStateException("boom"));
+
+        ImportJobDto submitted = importJobService.submit(new MockMultipartFile("file", "books.json", "application/json", "[]".getBytes()), ImportMode.INSERT);
+
+        ImportJobDto job = importJobService.find(submitted.id());
+        assertEquals(ImportJob.Status.FAILED, job.status());
+        assertEquals(List.of("boom"), job.result().errors());
+    }
+
+    @Test
+    void submit_queueFull_shouldRemoveJob() {
+        ImportJobService importJobService = new ImportJobService(importJobRepository, bookImportService, task -> {
+            throw new TaskRejectedException("queue full");
+        }, LEASE);
+
+        assertThrows(TaskRejectedException.class, () -> importJobService.submit(
+                new MockMultipartFile("file", "books.json", "application/json", "[]".getBytes()), ImportMode.INSERT));
+        verify(importJobRepository).delete(any(ImportJob.class));
+        verifyNoInteractions(bookImportService);
+    }
+
+    @Test
+    void find_unknownJob_shouldThrow() {
+        ImportJobService importJobService = new ImportJobService(importJobRepository, bookImportService, Runnable::run, LEASE);
+
+        assertThrows(EntityNotFoundException.class, () -> importJobService.find(UUID.randomUUID()));
+    }
+
+    @Test
+    void submit_shouldOwnJobAndRenewItsHeartbeat() throws Exception {
+        ImportJobService importJobService = new ImportJobService(importJobRepository, bookImportService, task -> {
+        }, LEASE);
+
+        ImportJobDto submitted = importJobService.submit(new MockMultipartFile("file", "books.json", "application/json", "[]".getBytes()), ImportMode.INSERT);
+        importJobService.heartbeat();
+
+        ImportJob job = jobs.get(submitted.id());
+        assertNotNull(job.getOwner());
+        assertEquals(job.getCreatedAt(), job.getHeartbeatAt());
+        verify(importJobRepository).heartbeat(eq(job.getOwner()), eq(List.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING)),
+                any(Instant.class));
+    }
+
+    @Test
+    void markInterruptedJobs_shouldMarkOnlyJobsWithExpiredLease() {
+        ImportJobService importJobService = new ImportJobService(importJobRepository, bookImportService, Runnable::run, LEASE);
+        ArgumentCaptor<Instant> staleBefore = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> finishedAt = ArgumentCaptor.forClass(Instant.class);
+
+        importJobService.markInterruptedJobs();
+
+        verify(importJobRepository).markStale(eq(List.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING)),
+                staleBefore.capture(), eq(ImportJob.Status.INTERRUPTED), finishedAt.capture());
+        assertEquals(finishedAt.getValue().minus(LEASE), staleBefore.getValue());
+    }
+}
@@ -0,0 +1,32 @@
+package com.acheron.profitsoft2.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void add_repeatedValue_shouldReturnFalse() {
+        LongHashSet set = new LongHashSet(4);
+
+        assertTrue(set.add(9780000000001L));
+        assertFalse(set.add(9780000000001L));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void add_overExpectedSize_shouldKeepAllValues() {
+        LongHashSet set = new LongHashSet(2);
+
+        for (long i = 0; i < 1000; i++) {
+            assertTrue(set.add(i * 31));
+        }
+        for (long i = 0; i < 1000; i++) {
+            assertFalse(set.add(i * 31));
+        }
+        assertEquals(1000, set.size());
+    }
+}